@@ -32,12 +32,13 @@ abstract class Action<T> {
     final int networkPolicy;
     final int errorResId;
     final Drawable errorDrawable;
-    final String key;
+    final CacheKey key;
     final Object tag;
     boolean willReplay;
     boolean cancelled;
+    boolean revalidating; // Delivered a stale image which is being revalidated.
 
-    Action(Picasso picasso, T target, Request request, int memoryPolicy, int networkPolicy, int errorResId, Drawable errorDrawable, String key, Object tag, boolean noFade) {
+    Action(Picasso picasso, T target, Request request, int memoryPolicy, int networkPolicy, int errorResId, Drawable errorDrawable, CacheKey key, Object tag, boolean noFade) {
         this.picasso = picasso;
         this.request = request;
         this.target = target == null ? null : new RequestWeakReference<>(this, target, picasso.referenceQueue);
@@ -54,6 +55,13 @@ abstract class Action<T> {
 
     abstract void error(Exception e);
 
+    /**
+     * Show a low-quality {@code preview} while the final image is still loading. The preview is
+     * not cached and is replaced by {@link #complete(Bitmap, Picasso.LoadedFrom)}.
+     */
+    void preview(Bitmap preview) {
+    }
+
     void cancel() {
         cancelled = true;
     }
@@ -66,7 +74,7 @@ abstract class Action<T> {
         return target == null ? null : target.get();
     }
 
-    String getKey() {
+    CacheKey getKey() {
         return key;
     }
 
@@ -91,7 +99,7 @@ abstract class Action<T> {
     }
 
     Priority getPriority() {
-        return request.priority;
+        return revalidating ? Priority.LOW : request.priority;
     }
 
     Object getTag() {
@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import static com.squareup.picasso.Utils.checkMain;
+
+import android.graphics.Bitmap;
+
+import com.squareup.picasso.interfaces.BitmapPool;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Tracks bitmaps which have been delivered to a target and are likely still displayed. Bitmaps
+ * are only weakly referenced so this tier never keeps memory alive on its own, but it lets a
+ * request find pixels which were already evicted from the memory cache.
+ * <p>
+ * Bitmaps which are still in use are never given to a {@link BitmapPool}: the built-in caches
+ * check {@link #isInUse(Bitmap)} before pooling what they evict, whichever pool that is.
+ * <p>
+ * Targets are activated and released on the main thread. Lookups may happen on any thread.
+ * <p>
+ * {@link Bitmap} keeps the identity {@code equals} and {@code hashCode}, so the weak maps keyed by
+ * bitmap below are identity maps which never keep a bitmap alive.
+ */
+final class ActiveResources {
+    // How many acquired entries of all Picasso instances hold each bitmap. Guarded by itself.
+    private static final Map<Bitmap, Integer> IN_USE = new WeakHashMap<>();
+
+    private final Map<CacheKey, ActiveEntry> active = new HashMap<>();
+    // Every acquired entry, including ones displaced from active by a newer bitmap for their key.
+    private final Map<Bitmap, List<ActiveEntry>> inUse = new WeakHashMap<>();
+    private final Map<Object, TargetReference> targetToReference = new WeakHashMap<>();
+
+    /**
+     * Returns whether {@code bitmap} is displayed or about to be delivered by any Picasso instance.
+     */
+    static boolean isInUse(Bitmap bitmap) {
+        synchronized (IN_USE) {
+            return IN_USE.containsKey(bitmap);
+        }
+    }
+
+    private static void markInUse(Bitmap bitmap) {
+        synchronized (IN_USE) {
+            Integer count = IN_USE.get(bitmap);
+            IN_USE.put(bitmap, count == null ? 1 : count + 1);
+        }
+    }
+
+    private static void unmarkInUse(Bitmap bitmap) {
+        synchronized (IN_USE) {
+            Integer count = IN_USE.get(bitmap);
+            if (count == null || count == 1) {
+                IN_USE.remove(bitmap);
+            } else {
+                IN_USE.put(bitmap, count - 1);
+            }
+        }
+    }
+
+    /**
+     * Offer a bitmap evicted from a memory cache to {@code bitmapPool}, unless it is still in use.
+     */
+    static void recycle(BitmapPool bitmapPool, Bitmap bitmap) {
+        if (bitmapPool != BitmapPool.NONE && !isInUse(bitmap)) {
+            bitmapPool.put(bitmap);
+        }
+    }
+
+    /**
+     * Record that {@code target} now displays {@code bitmap} for {@code key}, releasing whatever
+     * it displayed before. The target is watched through {@code referenceQueue} so it is released
+     * when collected.
+     */
+    void activate(Object target, CacheKey key, Bitmap bitmap, ReferenceQueue<Object> referenceQueue) {
+        checkMain();
+        release(target);
+        ActiveEntry entry = acquire(key, bitmap);
+        targetToReference.put(target, new TargetReference(target, entry, referenceQueue));
+    }
+
+    /**
+     * Mark {@code bitmap} as in use before it is written to the memory cache, so that an eviction
+     * cannot pool it before it is delivered. Balanced by {@link #unpin(CacheKey, Bitmap)}.
+     */
+    void pin(CacheKey key, Bitmap bitmap) {
+        acquire(key, bitmap);
+    }
+
+    /**
+     * Pin the bitmap active for {@code lookup} under {@code key}, as {@link #pin(CacheKey, Bitmap)}
+     * does, and return it. Since the bitmap is still in use while it is pinned, it cannot be pooled
+     * in between. Returns {@code null} if no bitmap is active for {@code lookup}.
+     */
+    synchronized Bitmap pinActive(CacheKey lookup, CacheKey key) {
+        Bitmap bitmap = get(lookup);
+        if (bitmap != null) {
+            acquire(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Undo {@link #pin(CacheKey, Bitmap)} once the bitmap was delivered, or will never be.
+     */
+    synchronized void unpin(CacheKey key, Bitmap bitmap) {
+        List<ActiveEntry> entries = inUse.get(bitmap);
+        if (entries == null) {
+            return;
+        }
+        for (int i = 0, n = entries.size(); i < n; i++) {
+            ActiveEntry entry = entries.get(i);
+            if (entry.key.equals(key)) {
+                release(entry);
+                return;
+            }
+        }
+    }
+
+    private synchronized ActiveEntry acquire(CacheKey key, Bitmap bitmap) {
+        ActiveEntry entry = active.get(key);
+        if (entry == null || entry.get() != bitmap) {
+            entry = new ActiveEntry(key, bitmap);
+            active.put(key, entry);
+        }
+        if (entry.acquired++ == 0) {
+            List<ActiveEntry> entries = inUse.get(bitmap);
+            if (entries == null) {
+                entries = new ArrayList<>(1);
+                inUse.put(bitmap, entries);
+            }
+            entries.add(entry);
+            markInUse(bitmap);
+        }
+        return entry;
+    }
+
+    /**
+     * Release the bitmap previously activated for {@code target}, if any.
+     */
+    void release(Object target) {
+        checkMain();
+        TargetReference reference = targetToReference.remove(target);
+        if (reference != null) {
+            // Cleared references are never enqueued, so this cannot be released twice.
+            reference.clear();
+            release(reference.entry);
+        }
+    }
+
+    /**
+     * Release the bitmap activated for a target which has been garbage collected.
+     */
+    void release(TargetReference reference) {
+        release(reference.entry);
+    }
+
+    private synchronized void release(ActiveEntry entry) {
+        if (--entry.acquired > 0) {
+            return;
+        }
+        Bitmap bitmap = entry.get();
+        if (bitmap != null) {
+            List<ActiveEntry> entries = inUse.get(bitmap);
+            if (entries != null && entries.remove(entry)) {
+                if (entries.isEmpty()) {
+                    inUse.remove(bitmap);
+                }
+                unmarkInUse(bitmap);
+            }
+        }
+        // The entry may already have been replaced by a newer bitmap for the same key.
+        if (active.get(entry.key) == entry) {
+            active.remove(entry.key);
+        }
+    }
+
+    /**
+     * Retrieve the active bitmap for {@code key} or {@code null}.
+     */
+    synchronized Bitmap get(CacheKey key) {
+        ActiveEntry entry = active.get(key);
+        if (entry == null) {
+            return null;
+        }
+        Bitmap bitmap = entry.get();
+        if (bitmap == null || bitmap.isRecycled()) {
+            return null;
+        }
+        return bitmap;
+    }
+
+    void clear() {
+        synchronized (this) {
+            active.clear();
+            for (Map.Entry<Bitmap, List<ActiveEntry>> entry : inUse.entrySet()) {
+                for (int i = 0, n = entry.getValue().size(); i < n; i++) {
+                    unmarkInUse(entry.getKey());
+                }
+            }
+            inUse.clear();
+        }
+        for (TargetReference reference : targetToReference.values()) {
+            reference.clear();
+        }
+        targetToReference.clear();
+    }
+
+    /**
+     * Wrap {@code bitmapPool} so that bitmaps which are still displayed are never reused.
+     */
+    BitmapPool guard(final BitmapPool bitmapPool) {
+        if (bitmapPool == BitmapPool.NONE) {
+            return bitmapPool;
+        }
+        return new BitmapPool() {
+            @Override
+            public Bitmap get(int width, int height, Bitmap.Config config) {
+                return bitmapPool.get(width, height, config);
+            }
+
+            @Override
+            public boolean put(Bitmap bitmap) {
+                return !isInUse(bitmap) && bitmapPool.put(bitmap);
+            }
+
+            @Override
+            public int size() {
+                return bitmapPool.size();
+            }
+
+            @Override
+            public int maxSize() {
+                return bitmapPool.maxSize();
+            }
+
+            @Override
+            public void clear() {
+                bitmapPool.clear();
+            }
+
+            @Override
+            public void trimToSize(int maxSize) {
+                bitmapPool.trimToSize(maxSize);
+            }
+        };
+    }
+
+    static final class ActiveEntry extends WeakReference<Bitmap> {
+        final CacheKey key;
+        int acquired;
+
+        ActiveEntry(CacheKey key, Bitmap bitmap) {
+            super(bitmap);
+            this.key = key;
+        }
+    }
+
+    static final class TargetReference extends WeakReference<Object> {
+        final ActiveEntry entry;
+
+        TargetReference(Object target, ActiveEntry entry, ReferenceQueue<Object> referenceQueue) {
+            super(target, referenceQueue);
+            this.entry = entry;
+        }
+    }
+}
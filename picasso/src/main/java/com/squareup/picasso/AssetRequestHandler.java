@@ -22,6 +22,8 @@ import android.content.Context;
 import android.content.res.AssetManager;
 import android.net.Uri;
 
+import androidx.annotation.NonNull;
+
 import java.io.IOException;
 
 import okio.Okio;
@@ -49,6 +51,12 @@ class AssetRequestHandler extends RequestHandler {
         return (SCHEME_FILE.equals(uri.getScheme()) && !uri.getPathSegments().isEmpty() && ANDROID_ASSET.equals(uri.getPathSegments().get(0)));
     }
 
+    @Override
+    public String getSourceVersion(@NonNull Request request) {
+        // Assets only change when the app is updated.
+        return Utils.getPackageVersion(context, context.getPackageName());
+    }
+
     @Override
     public Result load(Request request, int networkPolicy) throws IOException {
         if (assetManager == null) {
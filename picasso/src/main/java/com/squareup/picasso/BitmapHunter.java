@@ -23,7 +23,11 @@ import static androidx.exifinterface.media.ExifInterface.ORIENTATION_ROTATE_90;
 import static androidx.exifinterface.media.ExifInterface.ORIENTATION_TRANSPOSE;
 import static androidx.exifinterface.media.ExifInterface.ORIENTATION_TRANSVERSE;
 import static com.squareup.picasso.MemoryPolicy.shouldReadFromMemoryCache;
+import static com.squareup.picasso.MemoryPolicy.shouldWriteToMemoryCache;
+import static com.squareup.picasso.Picasso.LoadedFrom.DISK;
 import static com.squareup.picasso.Picasso.LoadedFrom.MEMORY;
+import static com.squareup.picasso.Picasso.LoadedFrom.NETWORK;
+import static com.squareup.picasso.Picasso.LoadedFrom.PIXEL_CACHE;
 import static com.squareup.picasso.Picasso.Priority;
 import static com.squareup.picasso.Picasso.Priority.LOW;
 import static com.squareup.picasso.Utils.OWNER_HUNTER;
@@ -38,9 +42,12 @@ import static com.squareup.picasso.Utils.log;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.Matrix;
+import android.os.SystemClock;
 import android.view.Gravity;
 
+import com.squareup.picasso.interfaces.BitmapPool;
 import com.squareup.picasso.interfaces.Cache;
+import com.squareup.picasso.interfaces.DiskCache;
 import com.squareup.picasso.interfaces.Transformation;
 
 import java.io.IOException;
@@ -52,17 +59,16 @@ import java.util.List;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import okhttp3.Call;
+import okio.Buffer;
 import okio.BufferedSource;
+import okio.ByteString;
 import okio.Okio;
 import okio.Source;
 
 class BitmapHunter implements Runnable {
-    /**
-     * Global lock for bitmap decoding to ensure that we are only decoding one at a time. Since
-     * this will only ever happen in background threads we help avoid excessive memory thrashing as
-     * well as potential OOMs. Shamelessly stolen from Volley.
-     */
-    private static final Object DECODE_LOCK = new Object();
+    private static final long PREVIEW_INTERVAL_MS = 300;
+    private static final long PREVIEW_READ_SIZE = 8192;
 
     private static final ThreadLocal<StringBuilder> NAME_BUILDER = new ThreadLocal<>() {
         @Override
@@ -90,10 +96,13 @@ class BitmapHunter implements Runnable {
     final Dispatcher dispatcher;
     final Cache cache;
     final Stats stats;
-    final String key;
+    final CacheKey key;
     final Request data;
     final int memoryPolicy;
     final RequestHandler requestHandler;
+    final boolean revalidation;
+    final boolean synchronous; // Hunted on the caller's thread by RequestCreator.get(), never handed off.
+    final Object cacheTag; // Explicit tag of the originating request, or null.
     int networkPolicy;
     Action<?> action;
     List<Action<?>> actions;
@@ -104,6 +113,19 @@ class BitmapHunter implements Runnable {
     int exifOrientation; // Determined during decoding of original resource.
     int retryCount;
     Priority priority;
+    boolean stale; // The result should be revalidated after it is delivered.
+    CacheKey contentKey; // Identifies the content and transformations, when deduplicating.
+    Bitmap pinned; // Written to the memory cache and kept out of the pool until delivered.
+    volatile Call call; // Download in flight while no thread is held, or null.
+    volatile SourceFetches.Fetch sourceFetch; // Download this hunter leads or waits for, or null.
+    volatile boolean callCancelled; // Cancelled while waiting for a download.
+    boolean awaitingDownload;
+    boolean awaitingSharedFetch;
+    boolean fetchAlone; // The shared fetch this hunter found was over before it could follow it.
+    boolean awaitingDecode;
+    boolean fetched; // The source was fetched and is waiting to be decoded.
+    RequestHandler.Result fetchedResult;
+    IOException fetchFailure;
 
     BitmapHunter(Picasso picasso, Dispatcher dispatcher, Cache cache, Stats stats, Action<?> action, RequestHandler requestHandler) {
         this.sequence = SEQUENCE_GENERATOR.incrementAndGet();
@@ -115,22 +137,31 @@ class BitmapHunter implements Runnable {
         this.key = action.getKey();
         this.data = action.getRequest();
         this.priority = action.getPriority();
-        this.memoryPolicy = action.getMemoryPolicy();
-        this.networkPolicy = action.getNetworkPolicy();
+        this.revalidation = action.revalidating;
+        this.synchronous = action instanceof GetAction;
+        if (revalidation) {
+            // Look past the stale copies in memory and on disk to the Downloader.
+            this.memoryPolicy = action.getMemoryPolicy() | MemoryPolicy.NO_CACHE.index;
+            this.networkPolicy = action.getNetworkPolicy() | NetworkPolicy.NO_CACHE.index | NetworkPolicy.REVALIDATE;
+        } else {
+            this.memoryPolicy = action.getMemoryPolicy();
+            this.networkPolicy = action.getNetworkPolicy();
+        }
         this.requestHandler = requestHandler;
+        this.cacheTag = action.getTag() != action ? action.getTag() : null;
         this.retryCount = requestHandler.getRetryCount();
     }
 
     /**
      * Decode a byte stream into a Bitmap. This method will take into account additional information
      * about the supplied request in order to do the decoding efficiently (such as through leveraging
-     * {@code inSampleSize}).
+     * {@code inSampleSize} and reusing bitmaps from {@code bitmapPool}).
      */
-    static Bitmap decodeStream(Source source, Request request) throws IOException {
+    static Bitmap decodeStream(Source source, Request request, BitmapPool bitmapPool, Stats stats) throws IOException {
         BufferedSource bufferedSource = Okio.buffer(source);
 
         boolean isWebPFile = Utils.isWebPFile(bufferedSource);
-        BitmapFactory.Options options = RequestHandler.createBitmapOptions(request);
+        BitmapFactory.Options options = RequestHandler.createBitmapOptions(request, bitmapPool);
         boolean calculateSize = RequestHandler.requiresInSampleSize(options);
 
         // We decode from a byte array because, a) when decoding a WebP network stream, BitmapFactory
@@ -140,23 +171,39 @@ class BitmapHunter implements Runnable {
             byte[] bytes = bufferedSource.readByteArray();
             if (calculateSize) {
                 BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
-                RequestHandler.calculateInSampleSize(request.targetWidth, request.targetHeight, options, request);
+                RequestHandler.calculateDecodeOptions(request, options, bitmapPool, stats);
+            }
+            try {
+                return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+            } catch (IllegalArgumentException e) {
+                releaseInBitmap(options, bitmapPool, e);
+                return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
             }
-            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
         } else {
             InputStream stream = bufferedSource.inputStream();
+            MarkableInputStream markStream = null;
+            long mark = 0;
             if (calculateSize) {
                 // TODO use an InputStream that buffers with Okio...
-                MarkableInputStream markStream = new MarkableInputStream(stream);
+                markStream = new MarkableInputStream(stream);
                 stream = markStream;
                 markStream.allowMarksToExpire(false);
-                long mark = markStream.savePosition(1024);
+                mark = markStream.savePosition(1024);
                 BitmapFactory.decodeStream(stream, null, options);
-                RequestHandler.calculateInSampleSize(request.targetWidth, request.targetHeight, options, request);
+                RequestHandler.calculateDecodeOptions(request, options, bitmapPool, stats);
+                markStream.reset(mark);
+                // Keep the whole stream replayable while decoding into a pooled bitmap in case it
+                // turns out to be unsuitable.
+                markStream.allowMarksToExpire(options.inBitmap == null);
+            }
+            Bitmap bitmap;
+            try {
+                bitmap = BitmapFactory.decodeStream(stream, null, options);
+            } catch (IllegalArgumentException e) {
+                releaseInBitmap(options, bitmapPool, e);
                 markStream.reset(mark);
-                markStream.allowMarksToExpire(true);
+                bitmap = BitmapFactory.decodeStream(stream, null, options);
             }
-            Bitmap bitmap = BitmapFactory.decodeStream(stream, null, options);
             if (bitmap == null) {
                 // Treat null as an IO exception, we will eventually retry.
                 throw new IOException("Failed to decode stream.");
@@ -165,6 +212,18 @@ class BitmapHunter implements Runnable {
         }
     }
 
+    /**
+     * Return a pooled {@code inBitmap} that the decoder rejected, rethrowing {@code e} if the
+     * failure was not caused by bitmap reuse.
+     */
+    private static void releaseInBitmap(BitmapFactory.Options options, BitmapPool bitmapPool, IllegalArgumentException e) {
+        if (options == null || options.inBitmap == null) {
+            throw e;
+        }
+        bitmapPool.put(options.inBitmap);
+        options.inBitmap = null;
+    }
+
     static void updateThreadName(Request data) {
         StringBuilder builder = NAME_BUILDER.get();
         if (builder != null) {
@@ -236,7 +295,24 @@ class BitmapHunter implements Runnable {
         return result;
     }
 
-    static Bitmap transformResult(Request data, Bitmap result, int exifOrientation) {
+    static Bitmap transformResult(Request data, Bitmap result, int exifOrientation, BitmapPool bitmapPool) {
+        Bitmap newResult = createTransformedBitmap(data, result, exifOrientation);
+        if (newResult != result) {
+            // The decoded bitmap never left the hunter, so it is safe to reuse for a later decode.
+            if (!bitmapPool.put(result)) {
+                result.recycle();
+            }
+            result = newResult;
+        }
+
+        return result;
+    }
+
+    /**
+     * Apply the size, crop, rotation and EXIF orientation of {@code data} to {@code result}. The
+     * returned bitmap may be {@code result} itself, which is never released.
+     */
+    static Bitmap createTransformedBitmap(Request data, Bitmap result, int exifOrientation) {
         int inWidth = result.getWidth();
         int inHeight = result.getHeight();
         boolean onlyScaleDown = data.onlyScaleDown;
@@ -370,13 +446,7 @@ class BitmapHunter implements Runnable {
             }
         }
 
-        Bitmap newResult = Bitmap.createBitmap(result, drawX, drawY, drawWidth, drawHeight, matrix, true);
-        if (newResult != result) {
-            result.recycle();
-            result = newResult;
-        }
-
-        return result;
+        return Bitmap.createBitmap(result, drawX, drawY, drawWidth, drawHeight, matrix, true);
     }
 
     private static boolean shouldResize(boolean onlyScaleDown, int inWidth, int inHeight, int targetWidth, int targetHeight) {
@@ -430,6 +500,25 @@ class BitmapHunter implements Runnable {
 
             result = hunt();
 
+            if (awaitingSharedFetch) {
+                awaitingSharedFetch = false;
+                if (followSourceFetch()) {
+                    // The leader of the fetch hands the source over, see onFetched().
+                    return;
+                }
+                // That fetch is already over, fetch alone.
+                result = hunt();
+            }
+            if (awaitingDownload) {
+                awaitingDownload = false;
+                enqueueDownload();
+                return;
+            }
+            if (awaitingDecode) {
+                awaitingDecode = false;
+                dispatcher.dispatchFetched(this);
+                return;
+            }
             if (result == null) {
                 dispatcher.dispatchFailed(this);
             } else {
@@ -452,37 +541,215 @@ class BitmapHunter implements Runnable {
             exception = e;
             dispatcher.dispatchFailed(this);
         } finally {
+            SourceFetches.Fetch fetch = sourceFetch;
+            if (fetch != null && fetch.leader == this && call == null) {
+                // Failed before fetching, let the other hunters fetch on their own.
+                completeSourceFetch(null, new IOException("Shared fetch failed"));
+            }
             Thread.currentThread().setName(Utils.THREAD_IDLE_NAME);
         }
     }
 
     Bitmap hunt() throws IOException {
         Bitmap bitmap = null;
+        ContentIndex contentIndex = picasso.contentIndex;
+        if (contentIndex != null && data.contentHash != null) {
+            contentKey = ContentIndex.contentKey(key, data.contentHash);
+        }
+        // The caches were already checked before the download was enqueued.
+        boolean resuming = fetched;
 
-        if (shouldReadFromMemoryCache(memoryPolicy)) {
-            bitmap = cache.get(key);
+        if (!resuming && shouldReadFromMemoryCache(memoryPolicy)) {
+            bitmap = pinActive(key);
             if (bitmap != null) {
+                stats.dispatchActiveHit();
+                picasso.onMemoryHit(key);
+                loadedFrom = MEMORY;
+                if (picasso.loggingEnabled) {
+                    log(OWNER_HUNTER, VERB_DECODED, data.logId(), "from active resources");
+                }
+                return bitmap;
+            }
+            bitmap = cache.get(key);
+            if (bitmap != null && pinCached(key, bitmap)) {
                 stats.dispatchCacheHit();
+                picasso.onMemoryHit(key);
                 loadedFrom = MEMORY;
                 if (picasso.loggingEnabled) {
                     log(OWNER_HUNTER, VERB_DECODED, data.logId(), "from cache");
                 }
                 return bitmap;
             }
+            bitmap = readSharedContent(contentIndex);
+            if (bitmap != null) {
+                stats.dispatchCacheHit();
+                loadedFrom = MEMORY;
+                if (picasso.loggingEnabled) {
+                    log(OWNER_HUNTER, VERB_DECODED, data.logId(), "from shared content");
+                }
+                return bitmap;
+            }
+            bitmap = transformCachedVariant();
+            if (bitmap != null) {
+                loadedFrom = MEMORY;
+                if (picasso.loggingEnabled) {
+                    log(OWNER_HUNTER, VERB_TRANSFORMED, data.logId(), "from cached variant");
+                }
+                return bitmap;
+            }
         }
 
-        networkPolicy = retryCount == 0 ? NetworkPolicy.OFFLINE.index : networkPolicy;
-        RequestHandler.Result result = requestHandler.load(data, networkPolicy);
-        if (result != null) {
-            loadedFrom = result.getLoadedFrom();
-            exifOrientation = result.getExifOrientation();
-            bitmap = result.getBitmap();
+        boolean diskLookup = false;
+        PixelDiskCache pixelCache = picasso.pixelCache;
+        if (!resuming && pixelCache != null && NetworkPolicy.shouldReadFromDiskCache(networkPolicy)) {
+            diskLookup = true;
+            bitmap = pixelCache.get(key, picasso.bitmapPool);
+            if (bitmap != null) {
+                stats.dispatchDiskHit();
+                loadedFrom = PIXEL_CACHE;
+                if (picasso.loggingEnabled) {
+                    log(OWNER_HUNTER, VERB_DECODED, data.logId(), "from pixel cache");
+                }
+                pin(bitmap);
+                writeToMemoryCache(bitmap);
+                return bitmap;
+            }
+        }
 
-            // If there was no Bitmap then we need to decode it from the stream.
-            if (bitmap == null) {
-                try (Source source = result.getSource()) {
-                    bitmap = decodeStream(source, data);
-                } catch (IOException ignored) {
+        // Only transformed results are worth storing, the source itself is already on disk.
+        DiskCache resultCache = picasso.resultDiskCache;
+        String sourceVersion = null;
+        if (resultCache != null && data.needsTransformation()) {
+            sourceVersion = requestHandler.getSourceVersion(data);
+        }
+        if (!resuming && sourceVersion != null && NetworkPolicy.shouldReadFromDiskCache(networkPolicy)) {
+            diskLookup = true;
+            bitmap = readFromResultCache(resultCache, sourceVersion);
+            if (bitmap != null) {
+                stats.dispatchDiskHit();
+                loadedFrom = DISK;
+                if (picasso.loggingEnabled) {
+                    log(OWNER_HUNTER, VERB_DECODED, data.logId(), "from result cache");
+                }
+                writeToMemoryCache(bitmap);
+                return bitmap;
+            }
+        }
+        if (diskLookup) {
+            stats.dispatchDiskMiss();
+        }
+
+        EncodedMemoryCache encodedCache = picasso.encodedCache;
+        String keyBase = key.base;
+        EncodedMemoryCache.Entry encoded = null;
+        if (!resuming && encodedCache != null && shouldReadFromMemoryCache(memoryPolicy)) {
+            encoded = encodedCache.get(keyBase);
+        }
+
+        if (encoded != null) {
+            loadedFrom = MEMORY;
+            exifOrientation = encoded.exifOrientation;
+            Bitmap shared = shareContent(contentIndex, encoded.bytes);
+            if (shared != null) {
+                return shared;
+            }
+            try {
+                bitmap = decodeStream(new Buffer().write(encoded.bytes), data, picasso.bitmapPool, stats);
+                if (picasso.loggingEnabled) {
+                    log(OWNER_HUNTER, VERB_DECODED, data.logId(), "from encoded cache");
+                }
+            } catch (IOException ignored) {
+            }
+        } else {
+            networkPolicy = retryCount == 0 ? NetworkPolicy.OFFLINE.index : networkPolicy;
+            RequestHandler.Result result;
+            if (!resuming && !synchronous) {
+                // Hold off fetching more while the decoding pool is behind.
+                dispatcher.awaitDecodeBacklog();
+            }
+            if (!resuming && !fetchAlone && canShareFetch()) {
+                SourceFetches.Fetch fetch = dispatcher.sourceFetches.join(keyBase, networkPolicy, this);
+                sourceFetch = fetch;
+                if (fetch.leader != this) {
+                    // Another hunter is already fetching this source, wait for its bytes once this
+                    // run is over, see run().
+                    awaitingSharedFetch = true;
+                    return null;
+                }
+                if (isCancelled()) {
+                    // Cancelled before joining, cancel() could not leave the fetch.
+                    dispatcher.sourceFetches.leave(fetch, this);
+                    return null;
+                }
+            }
+            if (resuming) {
+                result = takeFetched();
+            } else if (canEnqueueDownload()) {
+                result = ((NetworkRequestHandler) requestHandler).loadLocal(data, networkPolicy);
+                if (result == null) {
+                    // Give the thread back while waiting for the network, see run().
+                    awaitingDownload = true;
+                    return null;
+                }
+                result = completeSourceFetch(result, null);
+            } else {
+                try {
+                    result = requestHandler.load(data, networkPolicy);
+                } catch (IOException e) {
+                    completeSourceFetch(null, e);
+                    throw e;
+                }
+                result = completeSourceFetch(result, null);
+                if (data.progressive && !revalidation) {
+                    result = readProgressively(result);
+                }
+                if (result != null && result.getBitmap() == null && !synchronous && dispatcher.decodesSeparately()) {
+                    // Leave decoding to the decoding pool and free this thread for the next fetch.
+                    fetchedResult = bufferNetworkSource(result);
+                    fetched = true;
+                    awaitingDecode = true;
+                    return null;
+                }
+            }
+            if (result != null) {
+                loadedFrom = result.getLoadedFrom();
+                exifOrientation = result.getExifOrientation();
+                bitmap = result.getBitmap();
+                stale = result.isStale();
+                if (revalidation && loadedFrom != NETWORK && bitmap == null) {
+                    // Not modified. Unless it was evicted meanwhile, the stale copy is still in memory.
+                    Bitmap cached = cache.get(key);
+                    if (cached != null && pinCached(key, cached)) {
+                        try {
+                            result.getSource().close();
+                        } catch (IOException ignored) {
+                        }
+                        loadedFrom = MEMORY;
+                        return cached;
+                    }
+                }
+
+                // If there was no Bitmap then we need to decode it from the stream.
+                if (bitmap == null) {
+                    try (Source source = result.getSource()) {
+                        Source decodeSource = source;
+                        boolean keepBytes = encodedCache != null && shouldWriteToMemoryCache(memoryPolicy);
+                        if (keepBytes || (contentIndex != null && contentKey == null)) {
+                            ByteString bytes = Okio.buffer(source).readByteString();
+                            if (keepBytes) {
+                                // Keep the encoded bytes so that a later miss can decode from memory.
+                                encodedCache.set(keyBase, bytes, exifOrientation);
+                            }
+                            Bitmap shared = shareContent(contentIndex, bytes);
+                            if (shared != null) {
+                                loadedFrom = MEMORY;
+                                return shared;
+                            }
+                            decodeSource = new Buffer().write(bytes);
+                        }
+                        bitmap = decodeStream(decodeSource, data, picasso.bitmapPool, stats);
+                    } catch (IOException ignored) {
+                    }
                 }
             }
         }
@@ -493,29 +760,186 @@ class BitmapHunter implements Runnable {
             }
             stats.dispatchBitmapDecoded(bitmap);
             if (data.needsTransformation() || exifOrientation != 0) {
-                synchronized (DECODE_LOCK) {
-                    if (data.needsMatrixTransform() || exifOrientation != 0) {
-                        bitmap = transformResult(data, bitmap, exifOrientation);
-                        if (picasso.loggingEnabled) {
-                            log(OWNER_HUNTER, VERB_TRANSFORMED, data.logId());
-                        }
+                // Not serialized: the pool running this hunter already bounds how many bitmaps are
+                // transformed at once.
+                if (data.needsMatrixTransform() || exifOrientation != 0) {
+                    bitmap = transformResult(data, bitmap, exifOrientation, picasso.bitmapPool);
+                    if (picasso.loggingEnabled) {
+                        log(OWNER_HUNTER, VERB_TRANSFORMED, data.logId());
                     }
-                    if (data.hasCustomTransformations()) {
-                        bitmap = applyCustomTransformations(data.transformations, bitmap);
-                        if (picasso.loggingEnabled) {
-                            log(OWNER_HUNTER, VERB_TRANSFORMED, data.logId(), "from custom transformations");
-                        }
+                }
+                if (data.hasCustomTransformations()) {
+                    bitmap = applyCustomTransformations(data.transformations, bitmap);
+                    if (picasso.loggingEnabled) {
+                        log(OWNER_HUNTER, VERB_TRANSFORMED, data.logId(), "from custom transformations");
                     }
                 }
                 if (bitmap != null) {
                     stats.dispatchBitmapTransformed(bitmap);
                 }
             }
+            if (bitmap != null) {
+                writeToMemoryCache(bitmap);
+            }
+            if (bitmap != null && loadedFrom != MEMORY && NetworkPolicy.shouldWriteToDiskCache(networkPolicy) && (sourceVersion != null || pixelCache != null)) {
+                picasso.diskWriter.write(key, bitmap, pixelCache != null, sourceVersion);
+            }
         }
 
         return bitmap;
     }
 
+    private void writeToMemoryCache(Bitmap bitmap) {
+        if (shouldWriteToMemoryCache(memoryPolicy)) {
+            // Pinned before the cache can evict it, delivery only activates it later on the main thread.
+            pin(bitmap);
+            cache.set(key, bitmap, cacheTag, data.cachePartition);
+            picasso.onCacheWrite(data, key, bitmap);
+            if (contentKey != null) {
+                picasso.contentIndex.put(contentKey, key);
+            }
+        }
+    }
+
+    /**
+     * Keep {@code bitmap} out of the pool until this hunter's result is delivered, or will never be.
+     */
+    private void pin(Bitmap bitmap) {
+        if (pinned != bitmap) {
+            unpin();
+            picasso.activeResources.pin(key, bitmap);
+            pinned = bitmap;
+        }
+    }
+
+    /**
+     * Pin the bitmap active for {@code activeKey} and return it, or return {@code null}.
+     */
+    private Bitmap pinActive(CacheKey activeKey) {
+        unpin();
+        Bitmap bitmap = picasso.activeResources.pinActive(activeKey, key);
+        pinned = bitmap;
+        return bitmap;
+    }
+
+    /**
+     * Pin {@code bitmap}, which was just read from the memory cache for {@code cacheKey}. Returns
+     * {@code false} if it was evicted, and may have been pooled, before it was pinned.
+     */
+    private boolean pinCached(CacheKey cacheKey, Bitmap bitmap) {
+        pin(bitmap);
+        if (cache.get(cacheKey) == bitmap) {
+            return true;
+        }
+        unpin();
+        return false;
+    }
+
+    /**
+     * Returns the bitmap of another key which holds the same content and transformations as this
+     * hunter's request, according to an alias or the known content hash, or {@code null}.
+     */
+    private Bitmap readSharedContent(ContentIndex contentIndex) {
+        if (contentIndex == null) {
+            return null;
+        }
+        CacheKey holder = contentIndex.resolve(key);
+        if (holder == null && contentKey != null) {
+            holder = contentIndex.holder(contentKey);
+        }
+        if (holder == null || holder.equals(key)) {
+            return null;
+        }
+        Bitmap bitmap = pinActive(holder);
+        if (bitmap == null) {
+            bitmap = cache.get(holder);
+            if (bitmap != null && !pinCached(holder, bitmap)) {
+                bitmap = null;
+            }
+        }
+        if (bitmap != null) {
+            contentIndex.alias(key, holder);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Identify the content by hashing its encoded {@code bytes}, unless it is already known, and
+     * return the bitmap already decoded for it or {@code null}.
+     */
+    private Bitmap shareContent(ContentIndex contentIndex, ByteString bytes) {
+        if (contentIndex == null) {
+            return null;
+        }
+        if (contentKey == null) {
+            contentKey = ContentIndex.contentKey(key, bytes.sha256().hex());
+        }
+        if (!shouldReadFromMemoryCache(memoryPolicy)) {
+            return null;
+        }
+        Bitmap bitmap = readSharedContent(contentIndex);
+        if (bitmap != null && picasso.loggingEnabled) {
+            log(OWNER_HUNTER, VERB_DECODED, data.logId(), "from shared content");
+        }
+        return bitmap;
+    }
+
+    /**
+     * Decode the transformed result stored for this request, which needs no further
+     * transformation, or return {@code null}.
+     */
+    private Bitmap readFromResultCache(DiskCache resultCache, String sourceVersion) {
+        try (Source source = resultCache.get(key, sourceVersion)) {
+            if (source == null) {
+                return null;
+            }
+            return decodeStream(source, data, picasso.bitmapPool, stats);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Serve a resize from a larger cached image of the same source by downscaling it, rather than
+     * loading the source again. Only requests which are fully described by their target size are
+     * eligible, since any cached variant may already have been resized.
+     */
+    private Bitmap transformCachedVariant() {
+        if (!data.hasSize() || data.rotationDegrees != 0 || data.hasCustomTransformations()) {
+            return null;
+        }
+        CacheKey variantKey = cache.findVariant(key.base, data.targetWidth, data.targetHeight);
+        Bitmap variant = variantKey != null ? cache.get(variantKey) : null;
+        if (variant == null || variant.isRecycled()) {
+            return null;
+        }
+
+        // The variant is owned by the cache. Pin it so an eviction cannot pool it, and so have its
+        // pixels reused, while it is being read.
+        Bitmap bitmap;
+        picasso.activeResources.pin(variantKey, variant);
+        try {
+            // It may have been evicted, and pooled, before it was pinned.
+            if (cache.get(variantKey) != variant) {
+                return null;
+            }
+            // Not released here: the cache still owns the variant.
+            bitmap = createTransformedBitmap(data, variant, 0);
+            if (bitmap == variant) {
+                // Delivered as is, keep it pinned until then.
+                pin(variant);
+            }
+        } finally {
+            picasso.activeResources.unpin(variantKey, variant);
+        }
+        stats.dispatchCacheHit();
+        if (bitmap != variant) {
+            stats.dispatchBitmapTransformed(bitmap);
+            writeToMemoryCache(bitmap);
+        }
+        return bitmap;
+    }
+
     void attach(Action<?> action) {
         boolean loggingEnabled = picasso.loggingEnabled;
         Request request = action.request;
@@ -595,12 +1019,240 @@ class BitmapHunter implements Runnable {
         return newPriority;
     }
 
+    private boolean canEnqueueDownload() {
+        // Progressive requests need to see the body while it arrives, and get() must load it itself.
+        return !synchronous
+                && !data.progressive
+                && requestHandler instanceof NetworkRequestHandler
+                && !NetworkPolicy.isOfflineOnly(networkPolicy)
+                && ((NetworkRequestHandler) requestHandler).canEnqueue();
+    }
+
+    private boolean canShareFetch() {
+        // Progressive and revalidating requests read the body differently than the others, and get()
+        // has no thread to come back to once another hunter's fetch completes.
+        return !synchronous
+                && requestHandler instanceof NetworkRequestHandler
+                && !data.progressive
+                && !revalidation
+                && !NetworkPolicy.isOfflineOnly(networkPolicy);
+    }
+
+    /**
+     * Start waiting for the fetch this hunter found in progress. Returns {@code false} if that
+     * fetch is already over, in which case this hunter stops sharing and has to fetch on its own.
+     */
+    private boolean followSourceFetch() {
+        SourceFetches.Fetch fetch = sourceFetch;
+        if (isCancelled()) {
+            sourceFetch = null;
+            return true;
+        }
+        if (dispatcher.sourceFetches.follow(fetch, this)) {
+            if (isCancelled()) {
+                // Cancelled while following, cancel() may have left the fetch before it was joined.
+                dispatcher.sourceFetches.leave(fetch, this);
+            }
+            return true;
+        }
+        sourceFetch = null;
+        fetchAlone = true;
+        return false;
+    }
+
+    /**
+     * Hand {@code result} to the hunters waiting for the fetch this hunter leads, if any, and return
+     * this hunter's own copy of it.
+     */
+    private RequestHandler.Result completeSourceFetch(RequestHandler.Result result, IOException failure) {
+        SourceFetches.Fetch fetch = sourceFetch;
+        if (fetch == null) {
+            return result;
+        }
+        sourceFetch = null;
+        return dispatcher.sourceFetches.complete(fetch, result, failure, this);
+    }
+
+    /**
+     * Start downloading without holding a thread. Once the body has arrived the hunter is submitted
+     * again and {@link #hunt()} decodes it.
+     */
+    private void enqueueDownload() {
+        NetworkRequestHandler handler = (NetworkRequestHandler) requestHandler;
+        final SourceFetches.Fetch fetch = sourceFetch;
+        Call call = handler.newCall(data, networkPolicy);
+        this.call = call;
+        if (fetch != null ? !dispatcher.sourceFetches.attach(fetch, call) : isCancelled()) {
+            // Cancelled before the call was published, cancel() could not reach it.
+            return;
+        }
+        handler.enqueue(call, data, new NetworkRequestHandler.LoadCallback() {
+            @Override
+            public void onResult(RequestHandler.Result result) {
+                onDownloaded(fetch, result, null);
+            }
+
+            @Override
+            public void onFailure(IOException e) {
+                onDownloaded(fetch, null, e);
+            }
+        });
+    }
+
+    private void onDownloaded(SourceFetches.Fetch fetch, RequestHandler.Result result, IOException failure) {
+        if (fetch != null) {
+            // Hands the download to this hunter too, unless it was cancelled.
+            dispatcher.sourceFetches.complete(fetch, result, failure, null);
+        } else {
+            onFetched(result, failure);
+        }
+    }
+
+    /**
+     * Receive a source fetched without holding this hunter's thread, and submit the hunter again to
+     * decode it.
+     */
+    void onFetched(RequestHandler.Result result, IOException failure) {
+        if (isCancelled()) {
+            return;
+        }
+        fetchedResult = result;
+        fetchFailure = failure;
+        fetched = true;
+        dispatcher.dispatchFetched(this);
+    }
+
+    /**
+     * Read a network body while delivering previews decoded from the data received so far, at most
+     * one per {@link #PREVIEW_INTERVAL_MS}.
+     */
+    private RequestHandler.Result readProgressively(RequestHandler.Result result) throws IOException {
+        if (result == null || result.getLoadedFrom() != NETWORK || result.getSource() == null || result.getSource() instanceof Buffer) {
+            return result;
+        }
+        Buffer buffer = new Buffer();
+        BitmapFactory.Options options = null;
+        long previewedSize = 0;
+        long nextPreview = SystemClock.uptimeMillis() + PREVIEW_INTERVAL_MS;
+        try (Source source = result.getSource()) {
+            while (source.read(buffer, PREVIEW_READ_SIZE) != -1) {
+                if (SystemClock.uptimeMillis() < nextPreview || buffer.size() == previewedSize || isCancelled()) {
+                    continue;
+                }
+                previewedSize = buffer.size();
+                byte[] bytes = buffer.snapshot().toByteArray();
+                if (options == null) {
+                    options = createPreviewOptions(bytes);
+                }
+                if (options != null) {
+                    Bitmap preview = BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+                    if (preview != null) {
+                        dispatcher.dispatchPreview(this, preview);
+                    }
+                }
+                // Counted from the end of the decode so that slow devices decode less often.
+                nextPreview = SystemClock.uptimeMillis() + PREVIEW_INTERVAL_MS;
+            }
+        }
+        return new RequestHandler.Result(null, buffer, NETWORK, result.getExifOrientation(), result.isStale());
+    }
+
+    /**
+     * Returns options for decoding previews, or {@code null} if the header has not arrived yet.
+     */
+    private BitmapFactory.Options createPreviewOptions(byte[] bytes) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+        if (data.hasSize()) {
+            RequestHandler.calculateInSampleSize(data.targetWidth, data.targetHeight, options, data);
+        } else {
+            options.inJustDecodeBounds = false;
+        }
+        // Previews are thrown away, so halve their size again to keep decoding them cheap.
+        options.inSampleSize = Math.max(1, options.inSampleSize) * 2;
+        return options;
+    }
+
+    /**
+     * Read a network body completely so that the decoding pool never waits on the network.
+     */
+    private static RequestHandler.Result bufferNetworkSource(RequestHandler.Result result) throws IOException {
+        if (result.getLoadedFrom() != NETWORK || result.getSource() instanceof Buffer) {
+            return result;
+        }
+        Buffer buffer = new Buffer();
+        try (Source source = result.getSource()) {
+            buffer.writeAll(source);
+        }
+        return new RequestHandler.Result(null, buffer, NETWORK, result.getExifOrientation(), result.isStale());
+    }
+
+    /**
+     * Release the pin taken when the result was written to the memory cache, once it has been
+     * delivered or will never be.
+     */
+    void unpin() {
+        Bitmap bitmap = pinned;
+        pinned = null;
+        if (bitmap != null) {
+            picasso.activeResources.unpin(key, bitmap);
+        }
+    }
+
+    /**
+     * Close a fetched source which will never be decoded.
+     */
+    void discardFetched() {
+        RequestHandler.Result result = fetchedResult;
+        fetchedResult = null;
+        fetchFailure = null;
+        fetched = false;
+        if (result != null && result.getSource() != null) {
+            try {
+                result.getSource().close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private RequestHandler.Result takeFetched() throws IOException {
+        RequestHandler.Result result = fetchedResult;
+        IOException failure = fetchFailure;
+        fetchedResult = null;
+        fetchFailure = null;
+        fetched = false;
+        if (failure != null) {
+            throw failure;
+        }
+        return result;
+    }
+
     boolean cancel() {
-        return action == null && (actions == null || actions.isEmpty()) && future != null && future.cancel(false);
+        if (action != null || (actions != null && !actions.isEmpty())) {
+            return false;
+        }
+        SourceFetches.Fetch fetch = sourceFetch;
+        if (fetch != null) {
+            // The download continues while other hunters still wait for it.
+            callCancelled = true;
+            dispatcher.sourceFetches.leave(fetch, this);
+            return true;
+        }
+        Call call = this.call;
+        if (call != null) {
+            callCancelled = true;
+            call.cancel();
+            return true;
+        }
+        return future != null && future.cancel(false);
     }
 
     boolean isCancelled() {
-        return future != null && future.isCancelled();
+        return callCancelled || (future != null && future.isCancelled());
     }
 
     boolean shouldRetry(boolean airplaneMode, boolean isConnected) {
@@ -620,7 +1272,7 @@ class BitmapHunter implements Runnable {
         return result;
     }
 
-    String getKey() {
+    CacheKey getKey() {
         return key;
     }
 
@@ -652,6 +1304,10 @@ class BitmapHunter implements Runnable {
         return loadedFrom;
     }
 
+    boolean isStale() {
+        return stale;
+    }
+
     Priority getPriority() {
         return priority;
     }
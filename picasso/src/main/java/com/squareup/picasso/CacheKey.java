@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import static com.squareup.picasso.Utils.KEY_SEPARATOR;
+
+import androidx.annotation.NonNull;
+
+import com.squareup.picasso.interfaces.Cache;
+import com.squareup.picasso.interfaces.Transformation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Identifies the result of a {@link Request} in the memory cache: the source image and every
+ * option which changes the resulting pixels.
+ * <p>
+ * Keys compare field by field and compute their hash once, so lookups neither build nor hash a
+ * string. {@link #toString()} returns the string form passed to {@link Cache} implementations
+ * which only accept string keys.
+ */
+public final class CacheKey {
+    final String base;
+    final float rotationDegrees;
+    final boolean hasRotationPivot;
+    final float rotationPivotX;
+    final float rotationPivotY;
+    final int targetWidth;
+    final int targetHeight;
+    final boolean centerCrop;
+    final int centerCropGravity;
+    final boolean centerInside;
+    final String[] transformationKeys; // Null when there are no transformations.
+    private final int hashCode;
+    private String string; // Created lazily or the key this was created from.
+    private final boolean legacy;
+
+    CacheKey(Request data) {
+        this(data, null);
+    }
+
+    /**
+     * Create the key of {@code data}, using {@code normalizedBase} in place of its URI if it is
+     * not {@code null}.
+     */
+    CacheKey(Request data, String normalizedBase) {
+        if (data.stableKey != null) {
+            base = data.stableKey;
+        } else if (normalizedBase != null) {
+            base = normalizedBase;
+        } else if (data.uri != null) {
+            base = data.uri.toString();
+        } else {
+            base = String.valueOf(data.resourceId);
+        }
+        rotationDegrees = data.rotationDegrees;
+        hasRotationPivot = data.rotationDegrees != 0 && data.hasRotationPivot;
+        rotationPivotX = hasRotationPivot ? data.rotationPivotX : 0;
+        rotationPivotY = hasRotationPivot ? data.rotationPivotY : 0;
+        targetWidth = data.targetWidth;
+        targetHeight = data.targetHeight;
+        centerCrop = data.centerCrop;
+        centerCropGravity = data.centerCrop ? data.centerCropGravity : 0;
+        centerInside = !data.centerCrop && data.centerInside;
+        List<Transformation> transformations = data.transformations;
+        if (transformations != null) {
+            transformationKeys = new String[transformations.size()];
+            for (int i = 0; i < transformationKeys.length; i++) {
+                transformationKeys[i] = transformations.get(i).key();
+            }
+        } else {
+            transformationKeys = null;
+        }
+        legacy = false;
+        hashCode = computeHashCode();
+    }
+
+    private int computeHashCode() {
+        int result = base.hashCode();
+        result = 31 * result + Float.floatToIntBits(rotationDegrees);
+        result = 31 * result + Float.floatToIntBits(rotationPivotX);
+        result = 31 * result + Float.floatToIntBits(rotationPivotY);
+        result = 31 * result + targetWidth;
+        result = 31 * result + targetHeight;
+        result = 31 * result + (centerCrop ? 1 : 0);
+        result = 31 * result + centerCropGravity;
+        result = 31 * result + (centerInside ? 1 : 0);
+        result = 31 * result + Arrays.hashCode(transformationKeys);
+        return result;
+    }
+
+    /**
+     * Create a key for the same transformations as {@code key} applied to {@code base}.
+     */
+    CacheKey(CacheKey key, String base) {
+        this.base = base;
+        rotationDegrees = key.rotationDegrees;
+        hasRotationPivot = key.hasRotationPivot;
+        rotationPivotX = key.rotationPivotX;
+        rotationPivotY = key.rotationPivotY;
+        targetWidth = key.targetWidth;
+        targetHeight = key.targetHeight;
+        centerCrop = key.centerCrop;
+        centerCropGravity = key.centerCropGravity;
+        centerInside = key.centerInside;
+        transformationKeys = key.transformationKeys;
+        legacy = key.legacy;
+        if (legacy) {
+            string = base + key.string.substring(key.base.length());
+            hashCode = string.hashCode();
+        } else {
+            hashCode = computeHashCode();
+        }
+    }
+
+    private CacheKey(String key) {
+        base = Utils.getKeyBase(key);
+        rotationDegrees = 0;
+        hasRotationPivot = false;
+        rotationPivotX = 0;
+        rotationPivotY = 0;
+        targetWidth = 0;
+        targetHeight = 0;
+        centerCrop = false;
+        centerCropGravity = 0;
+        centerInside = false;
+        transformationKeys = null;
+        string = key;
+        legacy = true;
+        hashCode = key.hashCode();
+    }
+
+    private CacheKey(String base, float rotationDegrees, boolean hasRotationPivot, float rotationPivotX, float rotationPivotY, int targetWidth, int targetHeight, boolean centerCrop, int centerCropGravity, boolean centerInside, String[] transformationKeys) {
+        this.base = base;
+        this.rotationDegrees = rotationDegrees;
+        this.hasRotationPivot = hasRotationPivot;
+        this.rotationPivotX = rotationPivotX;
+        this.rotationPivotY = rotationPivotY;
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
+        this.centerCrop = centerCrop;
+        this.centerCropGravity = centerCropGravity;
+        this.centerInside = centerInside;
+        this.transformationKeys = transformationKeys;
+        legacy = false;
+        hashCode = computeHashCode();
+    }
+
+    /**
+     * Convert a key which was passed to the string-based methods of {@link Cache}. A string in the
+     * form created by {@link #toString()} is parsed back into the key it was created from, so both
+     * find the same entry. Any other string is opaque: it only equals keys converted from the same
+     * string.
+     */
+    static CacheKey fromString(String key) {
+        CacheKey parsed = parse(key);
+        return parsed != null ? parsed : new CacheKey(key);
+    }
+
+    /**
+     * Returns the key whose {@link #toString()} is exactly {@code key} or {@code null}.
+     */
+    private static CacheKey parse(String key) {
+        int start = key.indexOf(KEY_SEPARATOR);
+        if (start == -1) {
+            return null;
+        }
+        String base = key.substring(0, start);
+        float rotationDegrees = 0;
+        boolean hasRotationPivot = false;
+        float rotationPivotX = 0;
+        float rotationPivotY = 0;
+        int targetWidth = 0;
+        int targetHeight = 0;
+        boolean centerCrop = false;
+        int centerCropGravity = 0;
+        boolean centerInside = false;
+        List<String> transformationKeys = null;
+
+        // Options are written in a fixed order, followed by the transformations.
+        int stage = 0;
+        try {
+            for (start++; start < key.length(); ) {
+                int end = key.indexOf(KEY_SEPARATOR, start);
+                if (end == -1) {
+                    return null;
+                }
+                String line = key.substring(start, end);
+                start = end + 1;
+
+                if (stage < 1 && line.startsWith("rotation:")) {
+                    String degrees = line.substring("rotation:".length());
+                    int pivot = degrees.indexOf('@');
+                    if (pivot != -1) {
+                        int x = degrees.indexOf('x', pivot);
+                        if (x == -1) {
+                            return null;
+                        }
+                        hasRotationPivot = true;
+                        rotationPivotX = Float.parseFloat(degrees.substring(pivot + 1, x));
+                        rotationPivotY = Float.parseFloat(degrees.substring(x + 1));
+                        degrees = degrees.substring(0, pivot);
+                    }
+                    rotationDegrees = Float.parseFloat(degrees);
+                    stage = 1;
+                } else if (stage < 2 && line.startsWith("resize:")) {
+                    int x = line.indexOf('x');
+                    if (x == -1) {
+                        return null;
+                    }
+                    targetWidth = Integer.parseInt(line.substring("resize:".length(), x));
+                    targetHeight = Integer.parseInt(line.substring(x + 1));
+                    stage = 2;
+                } else if (stage < 3 && line.startsWith("centerCrop:")) {
+                    centerCrop = true;
+                    centerCropGravity = Integer.parseInt(line.substring("centerCrop:".length()));
+                    stage = 3;
+                } else if (stage < 3 && line.equals("centerInside")) {
+                    centerInside = true;
+                    stage = 3;
+                } else {
+                    if (transformationKeys == null) {
+                        transformationKeys = new ArrayList<>(2);
+                    }
+                    transformationKeys.add(line);
+                    stage = 4;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        CacheKey parsed = new CacheKey(base, rotationDegrees, hasRotationPivot, rotationPivotX, rotationPivotY, targetWidth, targetHeight, centerCrop, centerCropGravity, centerInside, transformationKeys != null ? transformationKeys.toArray(new String[0]) : null);
+        // Only the exact form toString() creates, otherwise two different strings could share a key.
+        return parsed.toString().equals(key) ? parsed : null;
+    }
+
+    /**
+     * Returns the part of this key which identifies the source image.
+     */
+    @NonNull
+    public String base() {
+        return base;
+    }
+
+    /**
+     * Returns whether this key describes the complete, undistorted source image: either the
+     * original or a resize which keeps the aspect ratio and does not crop.
+     */
+    boolean isFullContent() {
+        if (legacy) {
+            return Utils.isFullContentKey(string);
+        }
+        if (rotationDegrees != 0 || centerCrop || transformationKeys != null) {
+            return false;
+        }
+        // Resizing with a single dimension keeps the aspect ratio.
+        return targetWidth == 0 || targetHeight == 0 || centerInside;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheKey)) {
+            return false;
+        }
+        CacheKey other = (CacheKey) o;
+        if (hashCode != other.hashCode || legacy != other.legacy) {
+            return false;
+        }
+        if (legacy) {
+            return string.equals(other.string);
+        }
+        return base.equals(other.base)
+                && Float.compare(rotationDegrees, other.rotationDegrees) == 0
+                && Float.compare(rotationPivotX, other.rotationPivotX) == 0
+                && Float.compare(rotationPivotY, other.rotationPivotY) == 0
+                && hasRotationPivot == other.hasRotationPivot
+                && targetWidth == other.targetWidth
+                && targetHeight == other.targetHeight
+                && centerCrop == other.centerCrop
+                && centerCropGravity == other.centerCropGravity
+                && centerInside == other.centerInside
+                && Arrays.equals(transformationKeys, other.transformationKeys);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    /**
+     * Returns the string form of this key. It starts with the {@link #base()} followed by
+     * {@code '\n'} and a line for every option.
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        String result = string;
+        if (result == null) {
+            result = createString();
+            string = result;
+        }
+        return result;
+    }
+
+    private String createString() {
+        StringBuilder builder = new StringBuilder(base.length() + 50);
+        builder.append(base).append(KEY_SEPARATOR);
+
+        if (rotationDegrees != 0) {
+            builder.append("rotation:").append(rotationDegrees);
+            if (hasRotationPivot) {
+                builder.append('@').append(rotationPivotX).append('x').append(rotationPivotY);
+            }
+            builder.append(KEY_SEPARATOR);
+        }
+        if (targetWidth != 0 || targetHeight != 0) {
+            builder.append("resize:").append(targetWidth).append('x').append(targetHeight);
+            builder.append(KEY_SEPARATOR);
+        }
+        if (centerCrop) {
+            builder.append("centerCrop:").append(centerCropGravity).append(KEY_SEPARATOR);
+        } else if (centerInside) {
+            builder.append("centerInside").append(KEY_SEPARATOR);
+        }
+
+        if (transformationKeys != null) {
+            for (String transformationKey : transformationKeys) {
+                builder.append(transformationKey).append(KEY_SEPARATOR);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Secondary index over the keys of a memory cache. Keys are grouped by their key base, so that
+ * invalidating a URI or finding a variant to downscale only touches the entries of that source,
+ * and by request tag. Only keys and the dimensions of their images are kept, never the bitmaps
+ * themselves. Tags are only weakly referenced.
+ * <p>
+ * Caches must {@link #add} every stored entry and {@link #remove} every entry that leaves them,
+ * under the same lock as the change to their own storage.
+ */
+final class CacheKeyIndex {
+    private final Map<String, Map<CacheKey, Size>> keysByBase = new HashMap<>();
+    private final Map<Object, Set<CacheKey>> keysByTag = new WeakHashMap<>();
+    private final Map<CacheKey, Set<CacheKey>> tagKeysByKey = new HashMap<>();
+
+    synchronized void add(CacheKey key, Bitmap bitmap, Object tag) {
+        String keyBase = key.base;
+        Map<CacheKey, Size> forBase = keysByBase.get(keyBase);
+        if (forBase == null) {
+            forBase = new HashMap<>(4);
+            keysByBase.put(keyBase, forBase);
+        }
+        forBase.put(key, new Size(bitmap.getWidth(), bitmap.getHeight()));
+
+        Set<CacheKey> previousTagKeys = tagKeysByKey.remove(key);
+        if (previousTagKeys != null) {
+            previousTagKeys.remove(key);
+        }
+        if (tag != null) {
+            Set<CacheKey> tagKeys = keysByTag.get(tag);
+            if (tagKeys == null) {
+                tagKeys = new HashSet<>();
+                keysByTag.put(tag, tagKeys);
+            }
+            tagKeys.add(key);
+            tagKeysByKey.put(key, tagKeys);
+        }
+    }
+
+    synchronized void remove(CacheKey key) {
+        String keyBase = key.base;
+        Map<CacheKey, Size> forBase = keysByBase.get(keyBase);
+        if (forBase == null || forBase.remove(key) == null) {
+            return;
+        }
+        if (forBase.isEmpty()) {
+            keysByBase.remove(keyBase);
+        }
+        Set<CacheKey> tagKeys = tagKeysByKey.remove(key);
+        if (tagKeys != null) {
+            tagKeys.remove(key);
+        }
+    }
+
+    /**
+     * Returns a copy of the keys stored for {@code keyBase}.
+     */
+    synchronized List<CacheKey> keysForBase(String keyBase) {
+        Map<CacheKey, Size> forBase = keysByBase.get(keyBase);
+        return forBase != null ? new ArrayList<>(forBase.keySet()) : Collections.emptyList();
+    }
+
+    /**
+     * Returns a copy of the keys stored with {@code tag}.
+     */
+    synchronized List<CacheKey> keysForTag(Object tag) {
+        Set<CacheKey> tagKeys = keysByTag.get(tag);
+        return tagKeys != null ? new ArrayList<>(tagKeys) : Collections.emptyList();
+    }
+
+    /**
+     * Returns the key of the smallest variant of {@code keyBase} which shows the complete source
+     * image at no less than {@code minWidth} x {@code minHeight}, or {@code null}.
+     */
+    synchronized CacheKey findVariant(String keyBase, int minWidth, int minHeight) {
+        Map<CacheKey, Size> forBase = keysByBase.get(keyBase);
+        if (forBase == null) {
+            return null;
+        }
+        CacheKey best = null;
+        long bestArea = Long.MAX_VALUE;
+        for (Map.Entry<CacheKey, Size> entry : forBase.entrySet()) {
+            if (!entry.getKey().isFullContent()) {
+                continue;
+            }
+            int width = entry.getValue().width;
+            int height = entry.getValue().height;
+            if (width < minWidth || height < minHeight) {
+                continue;
+            }
+            long area = (long) width * height;
+            if (area < bestArea) {
+                bestArea = area;
+                best = entry.getKey();
+            }
+        }
+        return best;
+    }
+
+    synchronized void clear() {
+        keysByBase.clear();
+        keysByTag.clear();
+        tagKeysByKey.clear();
+    }
+
+    private static final class Size {
+        final int width;
+        final int height;
+
+        Size(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
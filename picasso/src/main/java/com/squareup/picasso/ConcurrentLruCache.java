@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.squareup.picasso.interfaces.BitmapPool;
+import com.squareup.picasso.interfaces.Cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A memory cache which uses a least-recently used eviction policy and is safe to read and write
+ * from any thread.
+ * <p>
+ * Keys are spread over a fixed number of segments, each guarded by its own lock and keeping its
+ * own access order, so concurrent lookups of different keys rarely contend and a hit touches no
+ * shared state. The byte budget is shared by all segments. Eviction removes the least-recently
+ * used entry of the segment holding the most bytes, which is the one furthest over its share.
+ */
+public final class ConcurrentLruCache implements Cache {
+    private static final int SEGMENT_COUNT = 8;
+
+    private final Segment[] segments;
+    private final int maxSize;
+    private final BitmapPool bitmapPool;
+    private final CacheKeyIndex index = new CacheKeyIndex();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder putCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Create a cache using an appropriate portion of the available RAM as the maximum size.
+     */
+    public ConcurrentLruCache(@NonNull Context context) {
+        this(Utils.calculateMemoryCacheSize(context));
+    }
+
+    /**
+     * Create a cache with a given maximum size in bytes.
+     */
+    public ConcurrentLruCache(int maxByteCount) {
+        this(maxByteCount, BitmapPool.NONE);
+    }
+
+    /**
+     * Create a cache using an appropriate portion of the available RAM as the maximum size which
+     * offers evicted bitmaps to {@code bitmapPool}.
+     */
+    public ConcurrentLruCache(@NonNull Context context, @NonNull BitmapPool bitmapPool) {
+        this(Utils.calculateMemoryCacheSize(context), bitmapPool);
+    }
+
+    /**
+     * Create a cache with a given maximum size in bytes which offers evicted bitmaps to
+     * {@code bitmapPool}.
+     */
+    public ConcurrentLruCache(int maxByteCount, @NonNull BitmapPool bitmapPool) {
+        if (maxByteCount <= 0) {
+            throw new IllegalArgumentException("Max byte count must be positive.");
+        }
+        this.maxSize = maxByteCount;
+        this.bitmapPool = Utils.checkNotNull(bitmapPool, "bitmapPool == null");
+        this.segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    private Segment segmentFor(CacheKey key) {
+        int hash = key.hashCode();
+        // Spread the higher bits down, the low bits of the hash are often similar.
+        hash ^= (hash >>> 16);
+        return segments[hash & (SEGMENT_COUNT - 1)];
+    }
+
+    @Nullable
+    @Override
+    public Bitmap get(@NonNull String key) {
+        return get(CacheKey.fromString(key));
+    }
+
+    @Nullable
+    @Override
+    public Bitmap get(@NonNull CacheKey key) {
+        Segment segment = segmentFor(key);
+        Entry entry;
+        synchronized (segment) {
+            // Moves the entry to the end of the segment's access order.
+            entry = segment.map.get(key);
+        }
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return entry.bitmap;
+    }
+
+    @Override
+    public void set(@NonNull String key, @NonNull Bitmap bitmap) {
+        set(CacheKey.fromString(key), bitmap, null);
+    }
+
+    @Override
+    public void set(@NonNull String key, @NonNull Bitmap bitmap, @Nullable Object tag) {
+        set(CacheKey.fromString(key), bitmap, tag);
+    }
+
+    @Override
+    public void set(@NonNull CacheKey key, @NonNull Bitmap bitmap, @Nullable Object tag) {
+        int byteCount = Utils.getBitmapBytes(bitmap);
+        Segment segment = segmentFor(key);
+
+        // If the bitmap is too big for the cache, don't even attempt to store it. Doing so will cause
+        // the cache to be cleared. Instead just evict an existing element with the same key if it
+        // exists.
+        if (byteCount > maxSize) {
+            remove(key);
+            return;
+        }
+
+        Entry previous;
+        synchronized (segment) {
+            previous = segment.map.put(key, new Entry(key, bitmap, byteCount));
+            segment.size += previous != null ? byteCount - previous.byteCount : byteCount;
+            index.add(key, bitmap, tag);
+        }
+        size.addAndGet(previous != null ? byteCount - previous.byteCount : byteCount);
+        putCount.increment();
+
+        trimToSize(maxSize);
+    }
+
+    /**
+     * Evict entries until the cache holds at most {@code maxSize} bytes, each time the
+     * least-recently used entry of the largest segment.
+     */
+    @Override
+    public void trimToSize(int maxSize) {
+        while (size.get() > maxSize) {
+            // Segment sizes are read without locking, a stale choice only evicts slightly unfairly.
+            Segment victim = null;
+            for (Segment segment : segments) {
+                if (segment.size > 0 && (victim == null || segment.size > victim.size)) {
+                    victim = segment;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+
+            Entry evicted;
+            synchronized (victim) {
+                evicted = victim.removeEldest();
+                if (evicted != null) {
+                    victim.size -= evicted.byteCount;
+                    index.remove(evicted.key);
+                }
+            }
+            if (evicted != null) {
+                size.addAndGet(-evicted.byteCount);
+                evictionCount.increment();
+                ActiveResources.recycle(bitmapPool, evicted.bitmap);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public void clear() {
+        trimToSize(-1);
+    }
+
+    @Override
+    public void clearKeyUri(String uri) {
+        // Keys are prefixed with a URI followed by '\n', which is exactly their key base.
+        for (CacheKey key : index.keysForBase(uri)) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public void clearTag(@NonNull Object tag) {
+        for (CacheKey key : index.keysForTag(tag)) {
+            remove(key);
+        }
+    }
+
+    private void remove(CacheKey key) {
+        Segment segment = segmentFor(key);
+        Entry previous;
+        synchronized (segment) {
+            previous = segment.map.remove(key);
+            if (previous != null) {
+                segment.size -= previous.byteCount;
+                index.remove(key);
+            }
+        }
+        if (previous != null) {
+            size.addAndGet(-previous.byteCount);
+        }
+    }
+
+    @Nullable
+    @Override
+    public CacheKey findVariant(@NonNull String keyBase, int minWidth, int minHeight) {
+        return index.findVariant(keyBase, minWidth, minHeight);
+    }
+
+    @Override
+    public boolean respectsPins() {
+        return true;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned a value.
+     */
+    public int hitCount() {
+        return hitCount.intValue();
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned {@code null}.
+     */
+    public int missCount() {
+        return missCount.intValue();
+    }
+
+    /**
+     * Returns the number of times {@link #set(CacheKey, Bitmap, Object)} was called.
+     */
+    public int putCount() {
+        return putCount.intValue();
+    }
+
+    /**
+     * Returns the number of values that have been evicted.
+     */
+    public int evictionCount() {
+        return evictionCount.intValue();
+    }
+
+    static final class Entry {
+        final CacheKey key;
+        final Bitmap bitmap;
+        final int byteCount;
+
+        Entry(CacheKey key, Bitmap bitmap, int byteCount) {
+            this.key = key;
+            this.bitmap = bitmap;
+            this.byteCount = byteCount;
+        }
+    }
+
+    /**
+     * A key range of the cache in access order. All access must hold the segment's monitor, except
+     * reading its size to pick a segment to evict from.
+     */
+    static final class Segment {
+        final LinkedHashMap<CacheKey, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
+        volatile int size;
+
+        Entry removeEldest() {
+            Iterator<Entry> iterator = map.values().iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            Entry eldest = iterator.next();
+            iterator.remove();
+            return eldest;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers which memory cache entry holds the decoded result of each encoded image, identified by
+ * the hash of its bytes, so that another key for the same content can be answered with that entry.
+ * <p>
+ * Keys are never stored twice in the memory cache. Instead a key is aliased to the key which
+ * holds the content, and lookups which miss follow the alias. Both maps are bounded and forget
+ * their least-recently used mappings; an alias to an evicted entry simply misses.
+ */
+final class ContentIndex {
+    private static final String CONTENT_PREFIX = "sha256:";
+    private static final int MAX_ENTRIES = 1024;
+
+    private final Map<CacheKey, CacheKey> holders = new BoundedMap();
+    private final Map<CacheKey, CacheKey> aliases = new BoundedMap();
+
+    /**
+     * Returns the key identifying the result of {@code key}'s transformations applied to the
+     * content hashed as {@code contentHash}.
+     */
+    static CacheKey contentKey(CacheKey key, String contentHash) {
+        return new CacheKey(key, CONTENT_PREFIX + contentHash);
+    }
+
+    /**
+     * Returns the key of the memory cache entry which holds {@code contentKey} or {@code null}.
+     */
+    synchronized CacheKey holder(CacheKey contentKey) {
+        return holders.get(contentKey);
+    }
+
+    /**
+     * Record that the memory cache entry for {@code key} holds {@code contentKey}.
+     */
+    synchronized void put(CacheKey contentKey, CacheKey key) {
+        holders.put(contentKey, key);
+        aliases.remove(key);
+    }
+
+    /**
+     * Record that {@code key} is answered by the memory cache entry for {@code holder}.
+     */
+    synchronized void alias(CacheKey key, CacheKey holder) {
+        aliases.put(key, holder);
+    }
+
+    /**
+     * Returns the key whose memory cache entry answers {@code key} or {@code null}.
+     */
+    synchronized CacheKey resolve(CacheKey key) {
+        return aliases.get(key);
+    }
+
+    /**
+     * Forget every mapping to or from the source identified by {@code keyBase}.
+     */
+    synchronized void clearKeyUri(String keyBase) {
+        removeKeyBase(holders, keyBase);
+        removeKeyBase(aliases, keyBase);
+    }
+
+    private static void removeKeyBase(Map<CacheKey, CacheKey> map, String keyBase) {
+        for (Iterator<Map.Entry<CacheKey, CacheKey>> i = map.entrySet().iterator(); i.hasNext(); ) {
+            Map.Entry<CacheKey, CacheKey> entry = i.next();
+            if (entry.getKey().base.equals(keyBase) || entry.getValue().base.equals(keyBase)) {
+                i.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        holders.clear();
+        aliases.clear();
+    }
+
+    private static final class BoundedMap extends LinkedHashMap<CacheKey, CacheKey> {
+        private static final long serialVersionUID = 1L;
+
+        BoundedMap() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheKey> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    }
+}
@@ -16,10 +16,25 @@
 package com.squareup.picasso;
 
 import static android.content.ContentResolver.SCHEME_CONTENT;
+import static androidx.exifinterface.media.ExifInterface.ORIENTATION_NORMAL;
+import static androidx.exifinterface.media.ExifInterface.TAG_IMAGE_LENGTH;
+import static androidx.exifinterface.media.ExifInterface.TAG_IMAGE_WIDTH;
+import static androidx.exifinterface.media.ExifInterface.TAG_ORIENTATION;
+import static androidx.exifinterface.media.ExifInterface.TAG_PIXEL_X_DIMENSION;
+import static androidx.exifinterface.media.ExifInterface.TAG_PIXEL_Y_DIMENSION;
 import static com.squareup.picasso.Picasso.LoadedFrom.DISK;
 
 import android.content.ContentResolver;
 import android.content.Context;
+import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.provider.DocumentsContract;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
+
+import androidx.annotation.NonNull;
+import androidx.exifinterface.media.ExifInterface;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -29,10 +44,23 @@ import okio.Okio;
 import okio.Source;
 
 class ContentStreamRequestHandler extends RequestHandler {
+    /**
+     * Only requests this small look for an EXIF thumbnail, larger ones would rarely find one big
+     * enough to be worth parsing the metadata for.
+     */
+    static final int MAX_THUMBNAIL_TARGET_SIZE = 256;
+    private static final float MAX_THUMBNAIL_ASPECT_DIFFERENCE = 0.02f;
+
     final Context context;
+    final Stats stats;
 
-    ContentStreamRequestHandler(Context context) {
+    ContentStreamRequestHandler(Context context, Stats stats) {
         this.context = context;
+        this.stats = stats;
+    }
+
+    static boolean wantsThumbnail(Request request) {
+        return request.hasSize() && request.targetWidth <= MAX_THUMBNAIL_TARGET_SIZE && request.targetHeight <= MAX_THUMBNAIL_TARGET_SIZE;
     }
 
     @Override
@@ -40,12 +68,111 @@ class ContentStreamRequestHandler extends RequestHandler {
         return SCHEME_CONTENT.equals(data.uri.getScheme());
     }
 
+    /**
+     * Uses the last-modified time and size reported by the provider, which media and document
+     * providers expose.
+     */
+    @Override
+    public String getSourceVersion(@NonNull Request request) {
+        ContentResolver contentResolver = context.getContentResolver();
+        try (Cursor cursor = contentResolver.query(request.uri, null, null, null, null)) {
+            if (cursor == null || !cursor.moveToFirst()) {
+                return null;
+            }
+            int modified = cursor.getColumnIndex(DocumentsContract.Document.COLUMN_LAST_MODIFIED);
+            if (modified == -1) {
+                modified = cursor.getColumnIndex(MediaStore.MediaColumns.DATE_MODIFIED);
+            }
+            if (modified == -1 || cursor.isNull(modified)) {
+                return null;
+            }
+            int size = cursor.getColumnIndex(OpenableColumns.SIZE);
+            return cursor.getLong(modified) + ":" + (size != -1 ? cursor.getLong(size) : 0);
+        } catch (RuntimeException ignored) {
+            return null;
+        }
+    }
+
     @Override
     public Result load(Request request, int networkPolicy) throws IOException {
+        if (wantsThumbnail(request)) {
+            Result thumbnail = loadExifThumbnail(request);
+            if (thumbnail != null) {
+                return thumbnail;
+            }
+        }
         Source source = Okio.source(getInputStream(request));
         return new Result(source, DISK);
     }
 
+    /**
+     * Load the thumbnail embedded in the EXIF metadata of {@code request}'s image together with its
+     * orientation, or return {@code null} if it has none which is suitable.
+     */
+    Result loadExifThumbnail(Request request) {
+        try (InputStream stream = getInputStream(request)) {
+            // Only reads up to the image data, the full stream is opened again on a miss.
+            ExifInterface exif = new ExifInterface(stream);
+            int exifOrientation = exif.getAttributeInt(TAG_ORIENTATION, ORIENTATION_NORMAL);
+            Bitmap thumbnail = decodeExifThumbnail(request, exif, exifOrientation);
+            return thumbnail != null ? new Result(thumbnail, null, DISK, exifOrientation) : null;
+        } catch (IOException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Decode the thumbnail embedded in {@code exif}, or return {@code null} if there is none, it is
+     * smaller than the request's target size or it crops or letterboxes the full image.
+     */
+    Bitmap decodeExifThumbnail(Request request, ExifInterface exif, int exifOrientation) {
+        if (!exif.hasThumbnail() || !exif.isThumbnailCompressed()) {
+            return null;
+        }
+        byte[] bytes = exif.getThumbnailBytes();
+        if (bytes == null) {
+            return null;
+        }
+        BitmapFactory.Options options = createBitmapOptions(request);
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        int width = options.outWidth;
+        int height = options.outHeight;
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+
+        // The target size applies after the image is rotated upright.
+        int rotation = BitmapHunter.getExifRotation(exifOrientation);
+        boolean swap = rotation == 90 || rotation == 270;
+        int targetWidth = swap ? request.targetHeight : request.targetWidth;
+        int targetHeight = swap ? request.targetWidth : request.targetHeight;
+        if (width < targetWidth || height < targetHeight) {
+            return null;
+        }
+
+        int imageWidth = exif.getAttributeInt(TAG_IMAGE_WIDTH, 0);
+        int imageHeight = exif.getAttributeInt(TAG_IMAGE_LENGTH, 0);
+        if (imageWidth <= 0 || imageHeight <= 0) {
+            imageWidth = exif.getAttributeInt(TAG_PIXEL_X_DIMENSION, 0);
+            imageHeight = exif.getAttributeInt(TAG_PIXEL_Y_DIMENSION, 0);
+        }
+        if (imageWidth <= 0 || imageHeight <= 0) {
+            return null;
+        }
+        float imageAspect = (float) imageWidth / imageHeight;
+        if (Math.abs((float) width / height - imageAspect) > imageAspect * MAX_THUMBNAIL_ASPECT_DIFFERENCE) {
+            return null;
+        }
+
+        options.inJustDecodeBounds = false;
+        Bitmap thumbnail = BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        if (thumbnail != null) {
+            stats.dispatchThumbnailHit();
+        }
+        return thumbnail;
+    }
+
     InputStream getInputStream(Request request) throws FileNotFoundException {
         ContentResolver contentResolver = context.getContentResolver();
         return contentResolver.openInputStream(request.uri);
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import android.os.StatFs;
+
+import java.io.File;
+
+/**
+ * Sizes a disk cache from the storage it lives on rather than with a fixed byte count.
+ * <p>
+ * The budget targets 2% of the total space, bounded by a minimum and a maximum, but never takes
+ * more than a quarter of the space left to the cache, even if that is below the minimum. Caches
+ * which use a policy recompute their budget every few minutes, growing as space is freed and
+ * shrinking as the device fills up.
+ *
+ * @see FileDiskCache#FileDiskCache(File, DiskCacheSizePolicy)
+ * @see Picasso.Builder#pixelDiskCacheSize(DiskCacheSizePolicy)
+ */
+public final class DiskCacheSizePolicy {
+    final long minSize;
+    final long maxSize;
+    final boolean adaptive;
+
+    /**
+     * Create a policy which keeps the budget between {@code minByteCount} and
+     * {@code maxByteCount}, unless the device is almost full.
+     */
+    public DiskCacheSizePolicy(long minByteCount, long maxByteCount) {
+        this(minByteCount, maxByteCount, true);
+    }
+
+    private DiskCacheSizePolicy(long minByteCount, long maxByteCount, boolean adaptive) {
+        if (minByteCount <= 0 || maxByteCount <= 0) {
+            throw new IllegalArgumentException("Max byte count must be positive.");
+        }
+        if (minByteCount > maxByteCount) {
+            throw new IllegalArgumentException("Min byte count must not exceed max byte count.");
+        }
+        this.minSize = minByteCount;
+        this.maxSize = maxByteCount;
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * A policy which always allows exactly {@code maxByteCount} bytes.
+     */
+    static DiskCacheSizePolicy fixed(long maxByteCount) {
+        return new DiskCacheSizePolicy(maxByteCount, maxByteCount, false);
+    }
+
+    /**
+     * Returns the budget for a cache in {@code directory} which currently holds
+     * {@code currentSize} bytes.
+     */
+    long calculate(File directory, long currentSize) {
+        if (!adaptive) {
+            return maxSize;
+        }
+        return calculate(directory, currentSize, minSize, maxSize);
+    }
+
+    static long calculate(File directory, long currentSize, long minSize, long maxSize) {
+        long total;
+        long available;
+        try {
+            StatFs statFs = new StatFs(directory.getAbsolutePath());
+            total = statFs.getTotalBytes();
+            available = statFs.getAvailableBytes();
+        } catch (IllegalArgumentException e) {
+            return minSize;
+        }
+        // Target 2% of the total space.
+        long size = Math.max(Math.min(total / 50, maxSize), minSize);
+        // The cache's own files count as space it may use.
+        return Math.min(size, (available + currentSize) / 4);
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.os.SystemClock;
+
+import com.squareup.picasso.interfaces.BitmapPool;
+import com.squareup.picasso.interfaces.Cache;
+import com.squareup.picasso.interfaces.DiskCache;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import okio.Buffer;
+
+/**
+ * Writes results to the pixel and result disk caches on a single background thread, so that a
+ * hunter is free as soon as its bitmap is decoded and transformed.
+ * <p>
+ * The original bitmap is pinned through {@link ActiveResources} until it is written, unless the
+ * memory cache does not {@linkplain Cache#respectsPins() respect pins}. Pending writes are drained
+ * in batches, keeping only the newest write of a key, and further writes are dropped once the
+ * queued copies reach their byte budget.
+ */
+final class DiskCacheWriter {
+    private static final long MAX_PENDING_BYTES = 16 * 1024 * 1024; // 16MB
+    private static final int RESULT_CACHE_QUALITY = 90;
+
+    private final PixelDiskCache pixelCache;
+    private final DiskCache resultCache;
+    private final BitmapPool bitmapPool;
+    private final ActiveResources activeResources;
+    private final boolean copyBitmaps; // Rather than pin them.
+    private final Stats stats;
+    private final long maxPendingBytes;
+    private final ExecutorService executor;
+    private final ArrayDeque<Write> pending = new ArrayDeque<>();
+    private long pendingBytes;
+    private boolean draining;
+    private boolean shutdown;
+
+    DiskCacheWriter(PixelDiskCache pixelCache, DiskCache resultCache, Cache cache, BitmapPool bitmapPool, ActiveResources activeResources, Stats stats) {
+        this.pixelCache = pixelCache;
+        this.resultCache = resultCache;
+        this.bitmapPool = bitmapPool;
+        this.activeResources = activeResources;
+        this.copyBitmaps = !cache.respectsPins();
+        this.stats = stats;
+        this.maxPendingBytes = Math.min(MAX_PENDING_BYTES, Runtime.getRuntime().maxMemory() / 16);
+        this.executor = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new Utils.PicassoThreadFactory());
+    }
+
+    /**
+     * Queue {@code bitmap} to be stored for {@code key} in the pixel cache if {@code toPixelCache}
+     * and in the result cache if {@code sourceVersion} is not {@code null}.
+     */
+    void write(CacheKey key, Bitmap bitmap, boolean toPixelCache, String sourceVersion) {
+        Bitmap.Config config = bitmap.getConfig();
+        if (config == null || bitmap.isRecycled()) {
+            return;
+        }
+        boolean hardware = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && config == Bitmap.Config.HARDWARE;
+        if (hardware) {
+            // Hardware bitmaps are never reused and their pixels cannot be mapped to a file.
+            toPixelCache = false;
+        }
+        if ((!toPixelCache || pixelCache == null) && (sourceVersion == null || resultCache == null)) {
+            return;
+        }
+
+        int bytes = Utils.getBitmapBytes(bitmap);
+        synchronized (this) {
+            if (shutdown || pendingBytes + bytes > maxPendingBytes) {
+                stats.dispatchDiskWriteDropped(false);
+                return;
+            }
+            pendingBytes += bytes;
+        }
+
+        if (hardware || !copyBitmaps) {
+            // Written from the original, which stays pinned until then.
+            if (!hardware) {
+                activeResources.pin(key, bitmap);
+            }
+            enqueue(new Write(key, key.base, bitmap, false, !hardware, bytes, toPixelCache, sourceVersion));
+            return;
+        }
+        Bitmap copy = bitmap.copy(config, false);
+        if (copy == null) {
+            synchronized (this) {
+                pendingBytes -= bytes;
+            }
+            stats.dispatchDiskWriteDropped(false);
+            return;
+        }
+        enqueue(new Write(key, key.base, copy, true, false, bytes, toPixelCache, sourceVersion));
+    }
+
+    /**
+     * Remove every entry of the source identified by {@code keyBase} after the writes queued so
+     * far, which are no longer stored.
+     */
+    void clearKeyUri(String keyBase) {
+        synchronized (this) {
+            for (Iterator<Write> i = pending.iterator(); i.hasNext(); ) {
+                Write write = i.next();
+                if (write.key != null && write.keyBase.equals(keyBase)) {
+                    i.remove();
+                    release(write);
+                    stats.dispatchDiskWriteDropped(true);
+                }
+            }
+        }
+        enqueue(new Write(null, keyBase, null, false, false, 0, false, null));
+    }
+
+    void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+        }
+        // Writes which are already queued still complete.
+        executor.shutdown();
+    }
+
+    private void enqueue(Write write) {
+        synchronized (this) {
+            if (shutdown) {
+                release(write);
+                return;
+            }
+            pending.addLast(write);
+            if (write.key != null) {
+                stats.dispatchDiskWriteQueued();
+            }
+            if (!draining) {
+                draining = true;
+                executor.execute(this::drain);
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            List<Write> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+                batch = new ArrayList<>(pending);
+                pending.clear();
+            }
+
+            // A later write of the same key replaces an earlier one in the same batch.
+            Map<CacheKey, Write> newest = new HashMap<>();
+            for (int i = 0, n = batch.size(); i < n; i++) {
+                Write write = batch.get(i);
+                if (write.key != null) {
+                    newest.put(write.key, write);
+                }
+            }
+            for (int i = 0, n = batch.size(); i < n; i++) {
+                Write write = batch.get(i);
+                if (write.key == null) {
+                    perform(write.keyBase);
+                } else if (newest.get(write.key) == write) {
+                    long start = SystemClock.uptimeMillis();
+                    perform(write);
+                    stats.dispatchDiskWriteFinished(SystemClock.uptimeMillis() - start);
+                } else {
+                    stats.dispatchDiskWriteDropped(true);
+                }
+                synchronized (this) {
+                    release(write);
+                }
+            }
+        }
+    }
+
+    private void perform(Write write) {
+        Bitmap bitmap = write.snapshot;
+        if (write.sourceVersion != null && resultCache != null) {
+            // Keep transparency lossless, everything else is stored as a high quality JPEG.
+            Bitmap.CompressFormat format = bitmap.hasAlpha() ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG;
+            Buffer buffer = new Buffer();
+            if (bitmap.compress(format, RESULT_CACHE_QUALITY, buffer.outputStream())) {
+                try {
+                    resultCache.set(write.key, write.sourceVersion, buffer.readByteString());
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        if (write.toPixelCache && pixelCache != null) {
+            pixelCache.set(write.key, bitmap);
+        }
+    }
+
+    private void perform(String keyBase) {
+        if (pixelCache != null) {
+            pixelCache.clearKeyUri(keyBase);
+        }
+        if (resultCache != null) {
+            resultCache.clearKeyUri(keyBase);
+        }
+    }
+
+    /**
+     * Give back the memory held by {@code write}. Must be called while holding the lock.
+     */
+    private void release(Write write) {
+        if (write.snapshot == null) {
+            return;
+        }
+        pendingBytes -= write.bytes;
+        if (write.ownsSnapshot) {
+            if (!bitmapPool.put(write.snapshot)) {
+                write.snapshot.recycle();
+            }
+        } else if (write.pinned) {
+            activeResources.unpin(write.key, write.snapshot);
+        }
+        write.snapshot = null;
+    }
+
+    static final class Write {
+        final CacheKey key; // Null when clearing a source.
+        final String keyBase;
+        final boolean ownsSnapshot;
+        final boolean pinned;
+        final int bytes;
+        final boolean toPixelCache;
+        final String sourceVersion;
+        Bitmap snapshot;
+
+        Write(CacheKey key, String keyBase, Bitmap snapshot, boolean ownsSnapshot, boolean pinned, int bytes, boolean toPixelCache, String sourceVersion) {
+            this.key = key;
+            this.keyBase = keyBase;
+            this.snapshot = snapshot;
+            this.ownsSnapshot = ownsSnapshot;
+            this.pinned = pinned;
+            this.bytes = bytes;
+            this.toPixelCache = toPixelCache;
+            this.sourceVersion = sourceVersion;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import android.os.SystemClock;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import okio.ByteString;
+
+/**
+ * Tracks the files of a disk cache directory and evicts them once they exceed a byte budget.
+ * <p>
+ * Eviction weighs frequency against recency: of the few least-recently used files, the one used
+ * least often is evicted first, so a file read many times outlives a burst of one-off reads. Use
+ * counts are halved periodically so that past popularity fades. The budget comes from a
+ * {@link DiskCacheSizePolicy} and is recomputed every few minutes.
+ * <p>
+ * Files are named after the hashes of their key base and full key, so all entries of a source can
+ * be found by name. Files ending in {@link #TEMP_SUFFIX} are being written and are not tracked.
+ * The directory is scanned lazily on first use, which must not happen on the main thread.
+ */
+final class DiskFileIndex {
+    static final String TEMP_SUFFIX = ".tmp";
+    private static final char NAME_SEPARATOR = '.';
+    private static final int EVICTION_SAMPLE = 8;
+    private static final int MAX_FREQUENCY = 255;
+    private static final long RECOMPUTE_INTERVAL = 5 * 60 * 1000; // 5 minutes
+    private static final int MIN_AGING_PERIOD = 1000;
+
+    final File directory;
+    private final DiskCacheSizePolicy policy;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private long maxSize;
+    private long computedAt;
+    private int accesses;
+    private boolean initialized;
+
+    DiskFileIndex(File directory, long maxSize) {
+        this(directory, DiskCacheSizePolicy.fixed(maxSize));
+    }
+
+    DiskFileIndex(File directory, DiskCacheSizePolicy policy) {
+        this.directory = directory;
+        this.policy = policy;
+        // Until the storage is inspected off the main thread.
+        this.maxSize = policy.adaptive ? policy.minSize : policy.maxSize;
+    }
+
+    static String fileName(CacheKey key) {
+        return hash(key.base) + NAME_SEPARATOR + hash(key.toString());
+    }
+
+    private static String hash(String value) {
+        return ByteString.encodeUtf8(value).sha1().hex();
+    }
+
+    private void initialize() {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+        //noinspection ResultOfMethodCallIgnored
+        directory.mkdirs();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            updateMaxSize();
+            return;
+        }
+        // Oldest first, readers refresh the modification time of the files they use.
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_SUFFIX)) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+                continue;
+            }
+            entries.put(file.getName(), new Entry(file.length()));
+            size += file.length();
+        }
+        updateMaxSize();
+    }
+
+    /**
+     * Recompute the budget if the last computation is old enough.
+     */
+    private void updateMaxSize() {
+        if (!policy.adaptive) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        if (computedAt != 0 && now - computedAt < RECOMPUTE_INTERVAL) {
+            return;
+        }
+        computedAt = now;
+        maxSize = policy.calculate(directory, size);
+    }
+
+    /**
+     * Returns whether {@code name} is tracked, marking it as used.
+     */
+    synchronized boolean contains(String name) {
+        initialize();
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.frequency < MAX_FREQUENCY) {
+            entry.frequency++;
+        }
+        if (++accesses >= Math.max(MIN_AGING_PERIOD, entries.size() * 10)) {
+            accesses = 0;
+            for (Entry e : entries.values()) {
+                e.frequency >>= 1;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a file which can be written and later {@link #commit committed} as {@code name}.
+     */
+    File tempFile(String name) {
+        synchronized (this) {
+            initialize();
+        }
+        return new File(directory, name + TEMP_SUFFIX);
+    }
+
+    /**
+     * Move {@code temp} into place as {@code name} and evict files until the budget is met.
+     */
+    void commit(File temp, String name) {
+        File file = new File(directory, name);
+        long length = temp.length();
+        if (!temp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            return;
+        }
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Entry entry = new Entry(length);
+            Entry previous = entries.put(name, entry);
+            if (previous != null) {
+                size -= previous.length;
+                // A rewrite keeps the popularity of what it replaces.
+                entry.frequency = previous.frequency;
+            }
+            size += length;
+            updateMaxSize();
+            evict(name, evicted);
+        }
+        delete(evicted);
+    }
+
+    /**
+     * Evict entries other than {@code keep} until the budget is met.
+     */
+    private void evict(String keep, List<String> evicted) {
+        while (size > maxSize) {
+            String victim = null;
+            int victimFrequency = Integer.MAX_VALUE;
+            int sampled = 0;
+            // Oldest first, so ties go to the least-recently used entry.
+            for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+                if (sampled++ == EVICTION_SAMPLE) {
+                    break;
+                }
+                if (!candidate.getKey().equals(keep) && candidate.getValue().frequency < victimFrequency) {
+                    victim = candidate.getKey();
+                    victimFrequency = candidate.getValue().frequency;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            size -= entries.remove(victim).length;
+            evicted.add(victim);
+        }
+    }
+
+    void remove(String name) {
+        synchronized (this) {
+            Entry entry = entries.remove(name);
+            if (entry != null) {
+                size -= entry.length;
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        new File(directory, name).delete();
+    }
+
+    /**
+     * Remove every file of the source identified by {@code keyBase}.
+     */
+    void removeKeyBase(String keyBase) {
+        String prefix = hash(keyBase) + NAME_SEPARATOR;
+        List<String> removed = new ArrayList<>();
+        synchronized (this) {
+            initialize();
+            for (Iterator<Map.Entry<String, Entry>> i = entries.entrySet().iterator(); i.hasNext(); ) {
+                Map.Entry<String, Entry> entry = i.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    i.remove();
+                    size -= entry.getValue().length;
+                    removed.add(entry.getKey());
+                }
+            }
+        }
+        delete(removed);
+    }
+
+    void clear() {
+        List<String> removed;
+        synchronized (this) {
+            initialize();
+            removed = new ArrayList<>(entries.keySet());
+            entries.clear();
+            size = 0;
+        }
+        delete(removed);
+    }
+
+    private void delete(List<String> names) {
+        for (int i = 0, n = names.size(); i < n; i++) {
+            //noinspection ResultOfMethodCallIgnored
+            new File(directory, names.get(i)).delete();
+        }
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    synchronized long maxSize() {
+        return maxSize;
+    }
+
+    static final class Entry {
+        final long length;
+        int frequency;
+
+        Entry(long length) {
+            this.length = length;
+        }
+    }
+}
@@ -20,7 +20,6 @@ import static android.content.Intent.ACTION_AIRPLANE_MODE_CHANGED;
 import static android.net.ConnectivityManager.CONNECTIVITY_ACTION;
 import static android.os.Process.THREAD_PRIORITY_BACKGROUND;
 import static com.squareup.picasso.BitmapHunter.forRequest;
-import static com.squareup.picasso.MemoryPolicy.shouldWriteToMemoryCache;
 import static com.squareup.picasso.Utils.OWNER_DISPATCHER;
 import static com.squareup.picasso.Utils.VERB_BATCHED;
 import static com.squareup.picasso.Utils.VERB_CANCELED;
@@ -40,6 +39,7 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
+import android.graphics.Bitmap;
 import android.net.ConnectivityManager;
 import android.net.Network;
 import android.net.NetworkCapabilities;
@@ -51,11 +51,13 @@ import android.os.Message;
 import com.squareup.picasso.interfaces.Cache;
 import com.squareup.picasso.interfaces.Downloader;
 
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
@@ -75,17 +77,24 @@ class Dispatcher {
     static final int TAG_PAUSE = 11;
     static final int TAG_RESUME = 12;
     static final int REQUEST_BATCH_RESUME = 13;
+    static final int TARGET_GCED = 14;
+    static final int HUNTER_FETCHED = 15;
+    static final int DECODE_FINISHED = 16;
     private static final int RETRY_DELAY = 500;
     private static final int AIRPLANE_MODE_ON = 1;
     private static final int AIRPLANE_MODE_OFF = 0;
     private static final String DISPATCHER_THREAD_NAME = "Dispatcher";
     private static final int BATCH_DELAY = 200; // ms
+    private static final int MAX_QUEUED_DECODES_PER_THREAD = 2;
 
     final DispatcherThread dispatcherThread;
     final Context context;
     final ExecutorService service;
+    final PicassoExecutorService decodeService; // Null when decoding happens on the service.
+    // Fetched hunters waiting for room in the decoding queue. Guarded by itself.
+    final PriorityQueue<BitmapHunter> decodeBacklog;
     final Downloader downloader;
-    final Map<String, BitmapHunter> hunterMap;
+    final Map<CacheKey, BitmapHunter> hunterMap;
     final Map<Object, Action<?>> failedActions;
     final Map<Object, Action<?>> pausedActions;
     final Set<Object> pausedTags;
@@ -95,16 +104,19 @@ class Dispatcher {
     final Stats stats;
     final List<BitmapHunter> batch;
     final NetworkBroadcastReceiver receiver;
+    final SourceFetches sourceFetches;
     final boolean scansNetworkChanges;
 
     boolean airplaneMode;
 
-    Dispatcher(Context context, ExecutorService service, Downloader downloader, Cache cache, Stats stats) {
+    Dispatcher(Context context, ExecutorService service, PicassoExecutorService decodeService, Downloader downloader, Cache cache, Stats stats) {
         this.dispatcherThread = new DispatcherThread();
         this.dispatcherThread.start();
         Utils.flushStackLocalLeaks(dispatcherThread.getLooper());
         this.context = context;
         this.service = service;
+        this.decodeService = decodeService;
+        this.decodeBacklog = new PriorityQueue<>(11, PicassoExecutorService::comparePriority);
         this.hunterMap = new LinkedHashMap<>();
         this.failedActions = new WeakHashMap<>();
         this.pausedActions = new WeakHashMap<>();
@@ -115,10 +127,14 @@ class Dispatcher {
         this.cache = cache;
         this.stats = stats;
         this.batch = new ArrayList<>(4);
+        this.sourceFetches = new SourceFetches();
         this.airplaneMode = Utils.isAirplaneModeOn(this.context);
         this.scansNetworkChanges = hasNetworkStatePermission(context);
         this.receiver = new NetworkBroadcastReceiver(this);
         receiver.register();
+        if (decodeService != null) {
+            decodeService.setAfterExecute(() -> handler.sendEmptyMessage(DECODE_FINISHED));
+        }
     }
 
     void shutdown() {
@@ -126,6 +142,16 @@ class Dispatcher {
         if (service instanceof PicassoExecutorService) {
             service.shutdown();
         }
+        if (decodeService != null) {
+            decodeService.shutdown();
+            synchronized (decodeBacklog) {
+                for (BitmapHunter hunter : decodeBacklog) {
+                    hunter.discardFetched();
+                }
+                decodeBacklog.clear();
+                decodeBacklog.notifyAll();
+            }
+        }
         downloader.shutdown();
         dispatcherThread.quit();
         // Unregister network broadcast receiver on the main thread.
@@ -152,6 +178,14 @@ class Dispatcher {
         handler.sendMessage(handler.obtainMessage(HUNTER_COMPLETE, hunter));
     }
 
+    void dispatchFetched(BitmapHunter hunter) {
+        handler.sendMessage(handler.obtainMessage(HUNTER_FETCHED, hunter));
+    }
+
+    void dispatchPreview(BitmapHunter hunter, Bitmap preview) {
+        handler.post(() -> performPreview(hunter, preview));
+    }
+
     void dispatchRetry(BitmapHunter hunter) {
         handler.sendMessageDelayed(handler.obtainMessage(HUNTER_RETRY, hunter), RETRY_DELAY);
     }
@@ -207,7 +241,7 @@ class Dispatcher {
     }
 
     void performCancel(Action<?> action) {
-        String key = action.getKey();
+        CacheKey key = action.getKey();
         BitmapHunter hunter = hunterMap.get(key);
         if (hunter != null) {
             hunter.detach(action);
@@ -310,6 +344,93 @@ class Dispatcher {
         }
     }
 
+    void performPreview(BitmapHunter hunter, Bitmap preview) {
+        if (hunter.isCancelled()) return;
+
+        // Copied here since actions only join and leave the hunter on this thread.
+        List<Action<?>> actions = new ArrayList<>(2);
+        if (hunter.getAction() != null) {
+            actions.add(hunter.getAction());
+        }
+        if (hunter.getActions() != null) {
+            actions.addAll(hunter.getActions());
+        }
+        if (!actions.isEmpty()) {
+            mainThreadHandler.post(() -> hunter.picasso.deliverPreview(actions, preview));
+        }
+    }
+
+    void performFetched(BitmapHunter hunter) {
+        hunter.call = null;
+        hunter.sourceFetch = null;
+        if (hunter.isCancelled()) {
+            hunter.discardFetched();
+            return;
+        }
+
+        if (service.isShutdown() || (decodeService != null && decodeService.isShutdown())) {
+            hunter.discardFetched();
+            performError(hunter, false);
+            return;
+        }
+
+        if (decodeService == null) {
+            hunter.future = service.submit(hunter);
+            return;
+        }
+        synchronized (decodeBacklog) {
+            decodeBacklog.add(hunter);
+        }
+        performDecodeFinished();
+    }
+
+    /**
+     * Move fetched hunters from the backlog to the decoding pool while its queue has room. The
+     * queue is kept short so that fetched images do not pile up faster than they can be decoded.
+     */
+    void performDecodeFinished() {
+        synchronized (decodeBacklog) {
+            while (!decodeBacklog.isEmpty() && !decodeService.isSaturated(MAX_QUEUED_DECODES_PER_THREAD)) {
+                BitmapHunter hunter = decodeBacklog.poll();
+                if (hunter.isCancelled()) {
+                    hunter.discardFetched();
+                } else {
+                    hunter.future = decodeService.submit(hunter);
+                }
+            }
+            if (decodeBacklog.isEmpty()) {
+                decodeBacklog.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns whether fetched sources are decoded on a separate pool.
+     */
+    boolean decodesSeparately() {
+        return decodeService != null;
+    }
+
+    /**
+     * Block a fetching thread while fetched hunters wait for the decoding pool, so that fetching
+     * slows down to the speed of decoding instead of buffering ever more images.
+     */
+    void awaitDecodeBacklog() throws InterruptedIOException {
+        if (decodeService == null) {
+            return;
+        }
+        synchronized (decodeBacklog) {
+            while (!decodeBacklog.isEmpty() && !decodeService.isShutdown()) {
+                try {
+                    decodeBacklog.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the decoding pool.");
+                }
+            }
+        }
+    }
+
     @SuppressLint("MissingPermission")
     void performRetry(BitmapHunter hunter) {
         if (hunter.isCancelled()) return;
@@ -347,9 +468,6 @@ class Dispatcher {
 
 
     void performComplete(BitmapHunter hunter) {
-        if (shouldWriteToMemoryCache(hunter.getMemoryPolicy())) {
-            cache.set(hunter.getKey(), hunter.getResult());
-        }
         hunterMap.remove(hunter.getKey());
         batch(hunter);
         if (hunter.getPicasso().loggingEnabled) {
@@ -426,6 +544,7 @@ class Dispatcher {
 
     private void batch(BitmapHunter hunter) {
         if (hunter.isCancelled()) {
+            hunter.unpin();
             return;
         }
         if (hunter.result != null) {
@@ -492,6 +611,15 @@ class Dispatcher {
                     dispatcher.performRetry(hunter);
                     break;
                 }
+                case DECODE_FINISHED: {
+                    dispatcher.performDecodeFinished();
+                    break;
+                }
+                case HUNTER_FETCHED: {
+                    BitmapHunter hunter = (BitmapHunter) msg.obj;
+                    dispatcher.performFetched(hunter);
+                    break;
+                }
                 case HUNTER_DECODE_FAILED: {
                     BitmapHunter hunter = (BitmapHunter) msg.obj;
                     dispatcher.performError(hunter, false);
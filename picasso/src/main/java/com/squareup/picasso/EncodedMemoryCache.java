@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import okio.ByteString;
+
+/**
+ * A second memory tier which keeps the encoded bytes of recently loaded sources, keyed by their
+ * key base. Decoding from these bytes avoids another trip through the request handler and its
+ * disk or network cache once the decoded bitmap has been evicted.
+ */
+final class EncodedMemoryCache {
+    final android.util.LruCache<String, Entry> cache;
+
+    EncodedMemoryCache(int maxByteCount) {
+        cache = new android.util.LruCache<>(maxByteCount) {
+            @Override
+            protected int sizeOf(String key, Entry value) {
+                return value.bytes.size();
+            }
+        };
+    }
+
+    Entry get(String keyBase) {
+        return cache.get(keyBase);
+    }
+
+    void set(String keyBase, ByteString bytes, int exifOrientation) {
+        // Storing something larger than the cache would only flush it.
+        if (bytes.size() > cache.maxSize()) {
+            cache.remove(keyBase);
+            return;
+        }
+        cache.put(keyBase, new Entry(bytes, exifOrientation));
+    }
+
+    void clearKeyUri(String keyBase) {
+        cache.remove(keyBase);
+    }
+
+    void trimToSize(int maxSize) {
+        if (maxSize <= 0) {
+            cache.evictAll();
+        } else {
+            cache.trimToSize(maxSize);
+        }
+    }
+
+    void clear() {
+        cache.evictAll();
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    int maxSize() {
+        return cache.maxSize();
+    }
+
+    static final class Entry {
+        final ByteString bytes;
+        final int exifOrientation;
+
+        Entry(ByteString bytes, int exifOrientation) {
+            this.bytes = bytes;
+            this.exifOrientation = exifOrientation;
+        }
+    }
+}
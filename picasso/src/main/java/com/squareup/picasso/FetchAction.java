@@ -24,7 +24,7 @@ class FetchAction extends Action<Object> {
     private final Object target;
     private Callback callback;
 
-    FetchAction(Picasso picasso, Request data, int memoryPolicy, int networkPolicy, Object tag, String key, Callback callback) {
+    FetchAction(Picasso picasso, Request data, int memoryPolicy, int networkPolicy, Object tag, CacheKey key, Callback callback) {
         super(picasso, null, data, memoryPolicy, networkPolicy, 0, null, key, tag, false);
         this.target = new Object();
         this.callback = callback;
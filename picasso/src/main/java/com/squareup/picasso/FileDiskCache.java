@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.squareup.picasso.interfaces.DiskCache;
+
+import java.io.File;
+import java.io.IOException;
+
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * A {@link DiskCache} which stores every image in its own file and evicts the least-recently used
+ * files once it exceeds its maximum size.
+ */
+public final class FileDiskCache implements DiskCache {
+    private static final int MAGIC = 0x52534c54; // "RSLT"
+
+    private final DiskFileIndex index;
+
+    /**
+     * Create a cache in {@code directory} which holds at most {@code maxByteCount} bytes. The
+     * directory must not be used for anything else.
+     */
+    public FileDiskCache(@NonNull File directory, long maxByteCount) {
+        if (maxByteCount <= 0) {
+            throw new IllegalArgumentException("Max byte count must be positive.");
+        }
+        this.index = new DiskFileIndex(Utils.checkNotNull(directory, "directory == null"), maxByteCount);
+    }
+
+    /**
+     * Create a cache in {@code directory} whose size follows the free space of the device as
+     * described by {@code policy}. The directory must not be used for anything else.
+     */
+    public FileDiskCache(@NonNull File directory, @NonNull DiskCacheSizePolicy policy) {
+        this.index = new DiskFileIndex(Utils.checkNotNull(directory, "directory == null"), Utils.checkNotNull(policy, "policy == null"));
+    }
+
+    @Nullable
+    @Override
+    public Source get(@NonNull CacheKey key, @NonNull String version) throws IOException {
+        String name = DiskFileIndex.fileName(key);
+        if (!index.contains(name)) {
+            return null;
+        }
+        File file = new File(index.directory, name);
+        BufferedSource source = Okio.buffer(Okio.source(file));
+        boolean success = false;
+        try {
+            if (source.readInt() != MAGIC || !readString(source).equals(key.toString())) {
+                // Corrupt or a hash collision.
+                return null;
+            }
+            if (!readString(source).equals(version)) {
+                // The source changed since this was stored, it will never be valid again.
+                index.remove(name);
+                return null;
+            }
+            success = true;
+        } finally {
+            if (!success) {
+                source.close();
+            }
+        }
+        // Keep the recency across processes, the entries are ordered by it on startup.
+        //noinspection ResultOfMethodCallIgnored
+        file.setLastModified(System.currentTimeMillis());
+        return source;
+    }
+
+    @Override
+    public void set(@NonNull CacheKey key, @NonNull String version, @NonNull ByteString data) throws IOException {
+        if (data.size() > index.maxSize()) {
+            return;
+        }
+        String name = DiskFileIndex.fileName(key);
+        File temp = index.tempFile(name);
+        try (BufferedSink sink = Okio.buffer(Okio.sink(temp))) {
+            sink.writeInt(MAGIC);
+            writeString(sink, key.toString());
+            writeString(sink, version);
+            sink.write(data);
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            throw e;
+        }
+        index.commit(temp, name);
+    }
+
+    private static void writeString(BufferedSink sink, String value) throws IOException {
+        ByteString bytes = ByteString.encodeUtf8(value);
+        sink.writeInt(bytes.size());
+        sink.write(bytes);
+    }
+
+    private static String readString(BufferedSource source) throws IOException {
+        return source.readUtf8(source.readInt());
+    }
+
+    @Override
+    public long size() {
+        return index.size();
+    }
+
+    @Override
+    public long maxSize() {
+        return index.maxSize();
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+    }
+
+    @Override
+    public void clearKeyUri(@NonNull String keyBase) {
+        index.removeKeyBase(keyBase);
+    }
+}
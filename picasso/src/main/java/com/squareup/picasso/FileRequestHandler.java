@@ -21,11 +21,13 @@ import static androidx.exifinterface.media.ExifInterface.TAG_ORIENTATION;
 import static com.squareup.picasso.Picasso.LoadedFrom.DISK;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.net.Uri;
 
 import androidx.annotation.NonNull;
 import androidx.exifinterface.media.ExifInterface;
 
+import java.io.File;
 import java.io.IOException;
 
 import okio.Okio;
@@ -33,12 +35,15 @@ import okio.Source;
 
 class FileRequestHandler extends ContentStreamRequestHandler {
 
-    FileRequestHandler(Context context) {
-        super(context);
+    FileRequestHandler(Context context, Stats stats) {
+        super(context, stats);
     }
 
     static int getFileExifRotation(@NonNull Uri uri) throws IOException {
-        ExifInterface exifInterface = new ExifInterface(uri.getPath());
+        return getFileExifRotation(new ExifInterface(uri.getPath()));
+    }
+
+    static int getFileExifRotation(@NonNull ExifInterface exifInterface) {
         return exifInterface.getAttributeInt(TAG_ORIENTATION, ORIENTATION_NORMAL);
     }
 
@@ -47,9 +52,24 @@ class FileRequestHandler extends ContentStreamRequestHandler {
         return SCHEME_FILE.equals(data.uri.getScheme());
     }
 
+    @Override
+    public String getSourceVersion(@NonNull Request request) {
+        File file = new File(request.uri.getPath());
+        long lastModified = file.lastModified();
+        return lastModified != 0 ? lastModified + ":" + file.length() : null;
+    }
+
     @Override
     public Result load(Request request, int networkPolicy) throws IOException {
+        ExifInterface exifInterface = new ExifInterface(request.uri.getPath());
+        int exifOrientation = getFileExifRotation(exifInterface);
+        if (wantsThumbnail(request)) {
+            Bitmap thumbnail = decodeExifThumbnail(request, exifInterface, exifOrientation);
+            if (thumbnail != null) {
+                return new Result(thumbnail, null, DISK, exifOrientation);
+            }
+        }
         Source source = Okio.source(getInputStream(request));
-        return new Result(null, source, DISK, getFileExifRotation(request.uri));
+        return new Result(null, source, DISK, exifOrientation);
     }
 }
@@ -18,7 +18,7 @@ package com.squareup.picasso;
 import android.graphics.Bitmap;
 
 class GetAction extends Action<Void> {
-    GetAction(Picasso picasso, Request data, int memoryPolicy, int networkPolicy, Object tag, String key) {
+    GetAction(Picasso picasso, Request data, int memoryPolicy, int networkPolicy, Object tag, CacheKey key) {
         super(picasso, null, data, memoryPolicy, networkPolicy, 0, null, key, tag, false);
     }
 
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Utf8;
+
+/**
+ * Remembers the requests whose results were most recently used from the memory cache and
+ * persists them to a file, so that a new process can load them again before they are requested.
+ * <p>
+ * Only requests which can be rebuilt from their parameters are remembered: they need a URI and
+ * must not have custom transformations. The total size of the remembered results is bounded by a
+ * byte budget.
+ */
+final class HotKeyStore {
+    private static final int VERSION = 1;
+    private static final long SAVE_DELAY = 10_000; // ms
+
+    private final File file;
+    private final int maxByteCount;
+    private final Handler handler;
+    private final LinkedHashMap<CacheKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int byteCount;
+    private boolean saveScheduled;
+
+    HotKeyStore(File file, int maxByteCount, Handler handler) {
+        this.file = file;
+        this.maxByteCount = maxByteCount;
+        this.handler = handler;
+    }
+
+    /**
+     * Remember that the result of {@code request} was stored in the memory cache under
+     * {@code key}.
+     */
+    void record(Request request, CacheKey key, Bitmap bitmap) {
+        if (request.uri == null || request.transformations != null) {
+            return;
+        }
+        int size = Utils.getBitmapBytes(bitmap);
+        if (size > maxByteCount) {
+            return;
+        }
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(request, size));
+            byteCount += size - (previous != null ? previous.byteCount : 0);
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (byteCount > maxByteCount && iterator.hasNext()) {
+                byteCount -= iterator.next().byteCount;
+                iterator.remove();
+            }
+        }
+        scheduleSave();
+    }
+
+    /**
+     * Mark the result stored under {@code key} as used again.
+     */
+    void touch(CacheKey key) {
+        boolean known;
+        synchronized (this) {
+            known = entries.get(key) != null;
+        }
+        if (known) {
+            scheduleSave();
+        }
+    }
+
+    private void scheduleSave() {
+        synchronized (this) {
+            if (saveScheduled) {
+                return;
+            }
+            saveScheduled = true;
+        }
+        handler.postDelayed(this::save, SAVE_DELAY);
+    }
+
+    /**
+     * Write the remembered requests, most recently used first.
+     */
+    void save() {
+        List<Entry> snapshot;
+        synchronized (this) {
+            saveScheduled = false;
+            snapshot = new ArrayList<>(entries.values());
+        }
+        Collections.reverse(snapshot);
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (BufferedSink sink = Okio.buffer(Okio.sink(temp))) {
+            sink.writeInt(VERSION);
+            sink.writeInt(snapshot.size());
+            for (int i = 0, n = snapshot.size(); i < n; i++) {
+                write(sink, snapshot.get(i));
+            }
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            return;
+        }
+        //noinspection ResultOfMethodCallIgnored
+        temp.renameTo(file);
+    }
+
+    /**
+     * Read the requests saved by a previous process, most recently used first, until their
+     * results would exceed the byte budget. The requests are recorded again in this store.
+     */
+    List<Request> load() {
+        if (!file.exists()) {
+            return Collections.emptyList();
+        }
+        List<Request> requests = new ArrayList<>();
+        int total = 0;
+        try (BufferedSource source = Okio.buffer(Okio.source(file))) {
+            if (source.readInt() != VERSION) {
+                return Collections.emptyList();
+            }
+            for (int i = 0, n = source.readInt(); i < n; i++) {
+                Entry entry = read(source);
+                total += entry.byteCount;
+                if (total > maxByteCount) {
+                    break;
+                }
+                requests.add(entry.request);
+            }
+        } catch (IOException | RuntimeException e) {
+            // A truncated or corrupt file, start over.
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            return Collections.emptyList();
+        }
+        return requests;
+    }
+
+    private static void write(BufferedSink sink, Entry entry) throws IOException {
+        Request request = entry.request;
+        writeString(sink, request.uri.toString());
+        writeString(sink, request.stableKey != null ? request.stableKey : "");
+        writeString(sink, request.cachePartition != null ? request.cachePartition : "");
+        sink.writeInt(request.targetWidth);
+        sink.writeInt(request.targetHeight);
+        sink.writeByte(request.centerCrop ? 1 : 0);
+        sink.writeInt(request.centerCropGravity);
+        sink.writeByte(request.centerInside ? 1 : 0);
+        sink.writeByte(request.onlyScaleDown ? 1 : 0);
+        sink.writeInt(Float.floatToIntBits(request.rotationDegrees));
+        sink.writeByte(request.hasRotationPivot ? 1 : 0);
+        sink.writeInt(Float.floatToIntBits(request.rotationPivotX));
+        sink.writeInt(Float.floatToIntBits(request.rotationPivotY));
+        sink.writeByte(request.purgeable ? 1 : 0);
+        writeString(sink, request.config != null ? request.config.name() : "");
+        sink.writeInt(entry.byteCount);
+    }
+
+    private static Entry read(BufferedSource source) throws IOException {
+        Request.Builder builder = new Request.Builder(Uri.parse(readString(source)));
+        String stableKey = readString(source);
+        if (!stableKey.isEmpty()) {
+            builder.stableKey(stableKey);
+        }
+        String cachePartition = readString(source);
+        if (!cachePartition.isEmpty()) {
+            builder.cachePartition(cachePartition);
+        }
+        int targetWidth = source.readInt();
+        int targetHeight = source.readInt();
+        if (targetWidth != 0 || targetHeight != 0) {
+            builder.resize(targetWidth, targetHeight);
+        }
+        boolean centerCrop = source.readByte() != 0;
+        int centerCropGravity = source.readInt();
+        if (centerCrop) {
+            builder.centerCrop(centerCropGravity);
+        }
+        if (source.readByte() != 0) {
+            builder.centerInside();
+        }
+        if (source.readByte() != 0) {
+            builder.onlyScaleDown();
+        }
+        float rotationDegrees = Float.intBitsToFloat(source.readInt());
+        boolean hasRotationPivot = source.readByte() != 0;
+        float rotationPivotX = Float.intBitsToFloat(source.readInt());
+        float rotationPivotY = Float.intBitsToFloat(source.readInt());
+        if (hasRotationPivot) {
+            builder.rotate(rotationDegrees, rotationPivotX, rotationPivotY);
+        } else if (rotationDegrees != 0) {
+            builder.rotate(rotationDegrees);
+        }
+        if (source.readByte() != 0) {
+            builder.purgeable();
+        }
+        String config = readString(source);
+        if (!config.isEmpty()) {
+            builder.config(Bitmap.Config.valueOf(config));
+        }
+        builder.priority(Picasso.Priority.LOW);
+        return new Entry(builder.build(), source.readInt());
+    }
+
+    private static void writeString(BufferedSink sink, String value) throws IOException {
+        sink.writeInt((int) Utf8.size(value));
+        sink.writeUtf8(value);
+    }
+
+    private static String readString(BufferedSource source) throws IOException {
+        return source.readUtf8(source.readInt());
+    }
+
+    static final class Entry {
+        final Request request;
+        final int byteCount;
+
+        Entry(Request request, int byteCount) {
+            this.request = request;
+            this.byteCount = byteCount;
+        }
+    }
+}
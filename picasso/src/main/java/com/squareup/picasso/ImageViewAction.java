@@ -27,11 +27,21 @@ class ImageViewAction extends Action<ImageView> {
 
     Callback callback;
 
-    ImageViewAction(Picasso picasso, ImageView imageView, Request data, int memoryPolicy, int networkPolicy, int errorResId, Drawable errorDrawable, String key, Object tag, Callback callback, boolean noFade) {
+    ImageViewAction(Picasso picasso, ImageView imageView, Request data, int memoryPolicy, int networkPolicy, int errorResId, Drawable errorDrawable, CacheKey key, Object tag, Callback callback, boolean noFade) {
         super(picasso, imageView, data, memoryPolicy, networkPolicy, errorResId, errorDrawable, key, tag, noFade);
         this.callback = callback;
     }
 
+    @Override
+    void preview(Bitmap preview) {
+        ImageView target = this.target.get();
+        if (target == null) {
+            return;
+        }
+        // Not activated, previews are never reused for other requests.
+        PicassoDrawable.setBitmap(target, picasso.context, preview, Picasso.LoadedFrom.NETWORK, noFade, picasso.indicatorsEnabled);
+    }
+
     @Override
     public void complete(Bitmap result, Picasso.LoadedFrom from) {
         if (result == null) {
@@ -46,6 +56,7 @@ class ImageViewAction extends Action<ImageView> {
         Context context = picasso.context;
         boolean indicatorsEnabled = picasso.indicatorsEnabled;
         PicassoDrawable.setBitmap(target, context, result, from, noFade, indicatorsEnabled);
+        picasso.activate(target, key, result);
 
         if (callback != null) {
             callback.onSuccess();
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.squareup.picasso.interfaces.BitmapPool;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@link BitmapPool} which buckets bitmaps by {@link Bitmap.Config} and allocation size and
+ * evicts the least-recently pooled bitmap once its byte budget is exceeded.
+ * <p>
+ * Pooled bitmaps are never recycled, they are simply dropped for the garbage collector when
+ * evicted. This keeps the pool safe to feed with bitmaps that may still be referenced elsewhere.
+ */
+public final class LruBitmapPool implements BitmapPool {
+    /**
+     * Don't hand out bitmaps which are much larger than requested, the decoder would keep all of
+     * that memory alive for a small image.
+     */
+    private static final int MAX_SIZE_MULTIPLE = 8;
+
+    private final int maxSize;
+    private final Map<Bitmap.Config, TreeMap<Integer, ArrayDeque<Bitmap>>> buckets = new EnumMap<>(Bitmap.Config.class);
+    private final LinkedHashSet<Bitmap> order = new LinkedHashSet<>();
+    private int size;
+    private int hitCount;
+    private int missCount;
+    private int putCount;
+    private int evictionCount;
+
+    /**
+     * Create a pool using an appropriate portion of the available RAM as the maximum size.
+     */
+    public LruBitmapPool(@NonNull Context context) {
+        this(Utils.calculateBitmapPoolSize(context));
+    }
+
+    /**
+     * Create a pool with a given maximum size in bytes.
+     */
+    public LruBitmapPool(int maxByteCount) {
+        if (maxByteCount <= 0) {
+            throw new IllegalArgumentException("Max byte count must be positive.");
+        }
+        this.maxSize = maxByteCount;
+    }
+
+    static int getBytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        }
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && config == Bitmap.Config.RGBA_F16) {
+            return 8;
+        }
+        return 4;
+    }
+
+    private static boolean isPoolable(Bitmap bitmap) {
+        if (bitmap.isRecycled() || !bitmap.isMutable() || bitmap.getConfig() == null) {
+            return false;
+        }
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.O || bitmap.getConfig() != Bitmap.Config.HARDWARE;
+    }
+
+    @Nullable
+    @Override
+    public synchronized Bitmap get(int width, int height, @NonNull Bitmap.Config config) {
+        int byteCount = width * height * getBytesPerPixel(config);
+        TreeMap<Integer, ArrayDeque<Bitmap>> sizes = buckets.get(config);
+        Integer bucket = sizes != null ? sizes.ceilingKey(byteCount) : null;
+        if (bucket == null || bucket > byteCount * MAX_SIZE_MULTIPLE) {
+            missCount++;
+            return null;
+        }
+
+        ArrayDeque<Bitmap> bitmaps = sizes.get(bucket);
+        Bitmap bitmap = bitmaps.pollLast();
+        if (bitmaps.isEmpty()) {
+            sizes.remove(bucket);
+        }
+        order.remove(bitmap);
+        size -= bucket;
+        hitCount++;
+
+        bitmap.reconfigure(width, height, config);
+        return bitmap;
+    }
+
+    @Override
+    public synchronized boolean put(@NonNull Bitmap bitmap) {
+        if (!isPoolable(bitmap) || order.contains(bitmap)) {
+            return false;
+        }
+        int byteCount = Utils.getBitmapBytes(bitmap);
+        if (byteCount > maxSize) {
+            return false;
+        }
+
+        TreeMap<Integer, ArrayDeque<Bitmap>> sizes = buckets.get(bitmap.getConfig());
+        if (sizes == null) {
+            sizes = new TreeMap<>();
+            buckets.put(bitmap.getConfig(), sizes);
+        }
+        ArrayDeque<Bitmap> bitmaps = sizes.get(byteCount);
+        if (bitmaps == null) {
+            bitmaps = new ArrayDeque<>();
+            sizes.put(byteCount, bitmaps);
+        }
+        bitmaps.addLast(bitmap);
+        order.add(bitmap);
+        size += byteCount;
+        putCount++;
+
+        trimToSize(maxSize);
+        return true;
+    }
+
+    /**
+     * Evict the least-recently pooled bitmaps until the pool holds at most {@code maxSize} bytes.
+     */
+    @Override
+    public synchronized void trimToSize(int maxSize) {
+        Iterator<Bitmap> iterator = order.iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Bitmap eldest = iterator.next();
+            iterator.remove();
+
+            int byteCount = Utils.getBitmapBytes(eldest);
+            TreeMap<Integer, ArrayDeque<Bitmap>> sizes = buckets.get(eldest.getConfig());
+            ArrayDeque<Bitmap> bitmaps = sizes.get(byteCount);
+            bitmaps.remove(eldest);
+            if (bitmaps.isEmpty()) {
+                sizes.remove(byteCount);
+            }
+            size -= byteCount;
+            evictionCount++;
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned a bitmap.
+     */
+    public synchronized int hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned {@code null}.
+     */
+    public synchronized int missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of bitmaps accepted by {@link #put(Bitmap)}.
+     */
+    public synchronized int putCount() {
+        return putCount;
+    }
+
+    /**
+     * Returns the number of bitmaps that have been evicted.
+     */
+    public synchronized int evictionCount() {
+        return evictionCount;
+    }
+}
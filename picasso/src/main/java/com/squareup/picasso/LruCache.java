@@ -15,21 +15,21 @@
  */
 package com.squareup.picasso;
 
-import static com.squareup.picasso.Utils.KEY_SEPARATOR;
-
 import android.content.Context;
 import android.graphics.Bitmap;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.squareup.picasso.interfaces.BitmapPool;
 import com.squareup.picasso.interfaces.Cache;
 
 /**
  * A memory cache which uses a least-recently used eviction policy.
  */
 public final class LruCache implements Cache {
-    final android.util.LruCache<String, LruCache.BitmapAndSize> cache;
+    final android.util.LruCache<CacheKey, LruCache.BitmapAndSize> cache;
+    final CacheKeyIndex index = new CacheKeyIndex();
 
     /**
      * Create a cache using an appropriate portion of the available RAM as the maximum size.
@@ -42,35 +42,80 @@ public final class LruCache implements Cache {
      * Create a cache with a given maximum size in bytes.
      */
     public LruCache(int maxByteCount) {
+        this(maxByteCount, BitmapPool.NONE);
+    }
+
+    /**
+     * Create a cache using an appropriate portion of the available RAM as the maximum size which
+     * offers evicted bitmaps to {@code bitmapPool}.
+     */
+    public LruCache(@NonNull Context context, @NonNull BitmapPool bitmapPool) {
+        this(Utils.calculateMemoryCacheSize(context), bitmapPool);
+    }
+
+    /**
+     * Create a cache with a given maximum size in bytes which offers evicted bitmaps to
+     * {@code bitmapPool}.
+     */
+    public LruCache(int maxByteCount, @NonNull final BitmapPool bitmapPool) {
+        Utils.checkNotNull(bitmapPool, "bitmapPool == null");
         cache = new android.util.LruCache<>(maxByteCount) {
             @Override
-            protected int sizeOf(String key, BitmapAndSize value) {
+            protected int sizeOf(CacheKey key, BitmapAndSize value) {
                 return value.byteCount;
             }
+
+            @Override
+            protected void entryRemoved(boolean evicted, CacheKey key, BitmapAndSize oldValue, BitmapAndSize newValue) {
+                // Runs outside the cache's own lock, but every change is made holding it.
+                index.remove(key);
+                if (evicted) {
+                    ActiveResources.recycle(bitmapPool, oldValue.bitmap);
+                }
+            }
         };
     }
 
     @Nullable
     @Override
     public Bitmap get(@NonNull String key) {
+        return get(CacheKey.fromString(key));
+    }
+
+    @Nullable
+    @Override
+    public Bitmap get(@NonNull CacheKey key) {
         BitmapAndSize bitmapAndSize = cache.get(key);
         return bitmapAndSize != null ? bitmapAndSize.bitmap : null;
     }
 
     @Override
     public void set(@NonNull String key, @NonNull Bitmap bitmap) {
+        set(CacheKey.fromString(key), bitmap, null);
+    }
 
+    @Override
+    public void set(@NonNull String key, @NonNull Bitmap bitmap, @Nullable Object tag) {
+        set(CacheKey.fromString(key), bitmap, tag);
+    }
+
+    @Override
+    public void set(@NonNull CacheKey key, @NonNull Bitmap bitmap, @Nullable Object tag) {
         int byteCount = Utils.getBitmapBytes(bitmap);
 
         // If the bitmap is too big for the cache, don't even attempt to store it. Doing so will cause
         // the cache to be cleared. Instead just evict an existing element with the same key if it
         // exists.
         if (byteCount > maxSize()) {
-            cache.remove(key);
+            remove(key);
             return;
         }
 
-        cache.put(key, new BitmapAndSize(bitmap, byteCount));
+        // The platform cache locks on itself, so holding its lock keeps the index in step with it.
+        synchronized (cache) {
+            cache.put(key, new BitmapAndSize(bitmap, byteCount));
+            index.add(key, bitmap, tag);
+        }
     }
 
     @Override
@@ -85,19 +130,54 @@ public final class LruCache implements Cache {
 
     @Override
     public void clear() {
-        cache.evictAll();
+        synchronized (cache) {
+            cache.evictAll();
+        }
     }
 
     @Override
-    public void clearKeyUri(String uri) {
-        // Keys are prefixed with a URI followed by '\n'.
-        for (String key : cache.snapshot().keySet()) {
-            if (key.startsWith(uri) && key.length() > uri.length() && key.charAt(uri.length()) == KEY_SEPARATOR) {
-                cache.remove(key);
+    public void trimToSize(int maxSize) {
+        synchronized (cache) {
+            if (maxSize <= 0) {
+                cache.evictAll();
+            } else {
+                cache.trimToSize(maxSize);
             }
         }
     }
 
+    @Override
+    public void clearKeyUri(String uri) {
+        // Keys are prefixed with a URI followed by '\n', which is exactly their key base.
+        for (CacheKey key : index.keysForBase(uri)) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public void clearTag(@NonNull Object tag) {
+        for (CacheKey key : index.keysForTag(tag)) {
+            remove(key);
+        }
+    }
+
+    private void remove(CacheKey key) {
+        synchronized (cache) {
+            cache.remove(key);
+        }
+    }
+
+    @Nullable
+    @Override
+    public CacheKey findVariant(@NonNull String keyBase, int minWidth, int minHeight) {
+        return index.findVariant(keyBase, minWidth, minHeight);
+    }
+
+    @Override
+    public boolean respectsPins() {
+        return true;
+    }
+
     /**
      * Returns the number of times {@link #get} returned a value.
      */
@@ -113,7 +193,7 @@ public final class LruCache implements Cache {
     }
 
     /**
-     * Returns the number of times {@link #set(String, Bitmap)} was called.
+     * Returns the number of times {@link #set(CacheKey, Bitmap, Object)} was called.
      */
     public int putCount() {
         return cache.putCount();
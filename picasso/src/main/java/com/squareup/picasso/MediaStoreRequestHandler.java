@@ -39,8 +39,8 @@ import okio.Source;
 class MediaStoreRequestHandler extends ContentStreamRequestHandler {
     private static final String[] CONTENT_ORIENTATION = new String[]{Images.ImageColumns.ORIENTATION};
 
-    MediaStoreRequestHandler(Context context) {
-        super(context);
+    MediaStoreRequestHandler(Context context, Stats stats) {
+        super(context, stats);
     }
 
     static PicassoKind getPicassoKind(int targetWidth, int targetHeight) {
@@ -78,6 +78,14 @@ class MediaStoreRequestHandler extends ContentStreamRequestHandler {
         boolean isVideo = mimeType != null && mimeType.startsWith("video/");
 
         if (request.hasSize()) {
+            if (!isVideo && wantsThumbnail(request)) {
+                // Cheaper than having the provider create or load its thumbnail.
+                Result thumbnail = loadExifThumbnail(request);
+                if (thumbnail != null) {
+                    return thumbnail;
+                }
+            }
+
             PicassoKind kind = getPicassoKind(request.targetWidth, request.targetHeight);
 
             Bitmap bitmap = null;
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_COMPLETE;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_MODERATE;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+
+import com.squareup.picasso.interfaces.BitmapPool;
+import com.squareup.picasso.interfaces.Cache;
+
+/**
+ * Shrinks the memory caches and bitmap pool when the system reports memory pressure. While the app
+ * is in the background both are additionally capped at the size they were trimmed to, until an
+ * activity is started again.
+ */
+final class MemoryTrimmer implements ComponentCallbacks2, Application.ActivityLifecycleCallbacks {
+    private final Context context;
+    private final Cache cache;
+    private final BitmapPool bitmapPool;
+    private final EncodedMemoryCache encodedCache;
+    private volatile float backgroundFraction = 1f;
+
+    MemoryTrimmer(Context context, Cache cache, BitmapPool bitmapPool, EncodedMemoryCache encodedCache) {
+        this.context = context;
+        this.cache = cache;
+        this.bitmapPool = bitmapPool;
+        this.encodedCache = encodedCache;
+    }
+
+    /**
+     * Returns the fraction of the cache size to keep for a {@code level} passed to
+     * {@link #onTrimMemory(int)}.
+     */
+    static float retainedFraction(int level) {
+        if (level >= TRIM_MEMORY_COMPLETE) {
+            return 0f;
+        }
+        if (level >= TRIM_MEMORY_MODERATE) {
+            return 0.25f;
+        }
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            // Includes TRIM_MEMORY_BACKGROUND.
+            return 0.5f;
+        }
+        if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+            return 0.25f;
+        }
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            return 0.5f;
+        }
+        return 0.75f;
+    }
+
+    void register() {
+        context.registerComponentCallbacks(this);
+        if (context instanceof Application) {
+            ((Application) context).registerActivityLifecycleCallbacks(this);
+        }
+    }
+
+    void unregister() {
+        context.unregisterComponentCallbacks(this);
+        if (context instanceof Application) {
+            ((Application) context).unregisterActivityLifecycleCallbacks(this);
+        }
+    }
+
+    /**
+     * Enforce the background cap after something was written to the memory cache.
+     */
+    void onCacheWrite() {
+        float fraction = backgroundFraction;
+        if (fraction < 1f) {
+            trim(fraction);
+        }
+    }
+
+    private void trim(float fraction) {
+        cache.trimToSize((int) (cache.maxSize() * fraction));
+        bitmapPool.trimToSize((int) (bitmapPool.maxSize() * fraction));
+        if (encodedCache != null) {
+            encodedCache.trimToSize((int) (encodedCache.maxSize() * fraction));
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        float fraction = retainedFraction(level);
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            backgroundFraction = Math.min(backgroundFraction, fraction);
+        }
+        trim(fraction);
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+
+    @Override
+    public void onActivityStarted(@NonNull Activity activity) {
+        backgroundFraction = 1f;
+    }
+
+    @Override
+    public void onActivityCreated(@NonNull Activity activity, Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityResumed(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(@NonNull Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(@NonNull Activity activity) {
+    }
+}
@@ -34,7 +34,20 @@ public enum NetworkPolicy {
     /**
      * Forces the request through the disk cache only, skipping network.
      */
-    OFFLINE(1 << 2);
+    OFFLINE(1 << 2),
+
+    /**
+     * Delivers a stale copy from the disk cache immediately and revalidates it in the background
+     * at {@link Picasso.Priority#LOW low} priority. If the image changed, the new image replaces
+     * the cached one and is delivered to the same target again, calling its callback a second
+     * time.
+     */
+    STALE_WHILE_REVALIDATE(1 << 3);
+
+    /**
+     * Set internally on the background revalidation of a stale image.
+     */
+    static final int REVALIDATE = 1 << 30;
 
     final int index;
 
@@ -53,4 +66,12 @@ public enum NetworkPolicy {
     public static boolean isOfflineOnly(int networkPolicy) {
         return (networkPolicy & NetworkPolicy.OFFLINE.index) != 0;
     }
+
+    public static boolean isStaleWhileRevalidate(int networkPolicy) {
+        return (networkPolicy & NetworkPolicy.STALE_WHILE_REVALIDATE.index) != 0;
+    }
+
+    static boolean isRevalidation(int networkPolicy) {
+        return (networkPolicy & REVALIDATE) != 0;
+    }
 }
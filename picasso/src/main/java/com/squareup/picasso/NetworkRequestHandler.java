@@ -18,29 +18,50 @@ package com.squareup.picasso;
 import static com.squareup.picasso.Picasso.LoadedFrom.DISK;
 import static com.squareup.picasso.Picasso.LoadedFrom.NETWORK;
 
+import androidx.annotation.NonNull;
+
+import com.squareup.picasso.interfaces.AsyncDownloader;
 import com.squareup.picasso.interfaces.Downloader;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Source;
 
 class NetworkRequestHandler extends RequestHandler {
     private static final String SCHEME_HTTP = "http";
     private static final String SCHEME_HTTPS = "https";
+    // Added by OkHttp when a cached response is served past its freshness lifetime.
+    private static final String STALE_WARNING = "110";
 
     private final Downloader downloader;
     private final Stats stats;
+    private final SeedPack seedPack; // Null when there are no seeds.
 
-    NetworkRequestHandler(Downloader downloader, Stats stats) {
+    NetworkRequestHandler(Downloader downloader, Stats stats, SeedPack seedPack) {
         this.downloader = downloader;
         this.stats = stats;
+        this.seedPack = seedPack;
     }
 
     private static okhttp3.Request createRequest(Request request, int networkPolicy) {
         CacheControl cacheControl = null;
-        if (networkPolicy != 0) {
+        if (NetworkPolicy.isRevalidation(networkPolicy)) {
+            // Treat the cached copy as expired so that it is validated with a conditional request.
+            CacheControl.Builder builder = new CacheControl.Builder().maxAge(0, TimeUnit.SECONDS);
+            if (!NetworkPolicy.shouldWriteToDiskCache(networkPolicy)) {
+                builder.noStore();
+            }
+            cacheControl = builder.build();
+        } else if (networkPolicy != 0) {
             if (NetworkPolicy.isOfflineOnly(networkPolicy)) {
                 cacheControl = CacheControl.FORCE_CACHE;
             } else {
@@ -70,8 +91,73 @@ class NetworkRequestHandler extends RequestHandler {
 
     @Override
     public Result load(Request request, int networkPolicy) throws IOException {
+        Result local = loadLocal(request, networkPolicy);
+        if (local != null) {
+            return local;
+        }
         okhttp3.Request downloaderRequest = createRequest(request, networkPolicy);
-        Response response = downloader.load(downloaderRequest);
+        return toResult(request, downloader.load(downloaderRequest), false);
+    }
+
+    /**
+     * Returns the image from the seed pack or a stale copy from the Downloader's cache, or
+     * {@code null} if it must be downloaded.
+     */
+    Result loadLocal(Request request, int networkPolicy) throws IOException {
+        if (seedPack != null && NetworkPolicy.shouldReadFromDiskCache(networkPolicy)) {
+            Source seed = seedPack.open(request.uri.toString());
+            if (seed != null) {
+                return new Result(seed, DISK);
+            }
+        }
+
+        if (NetworkPolicy.isStaleWhileRevalidate(networkPolicy) && !NetworkPolicy.isRevalidation(networkPolicy) && NetworkPolicy.shouldReadFromDiskCache(networkPolicy) && !NetworkPolicy.isOfflineOnly(networkPolicy)) {
+            return loadStale(request);
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether downloads can be {@linkplain #enqueue enqueued} instead of blocking.
+     */
+    boolean canEnqueue() {
+        return downloader instanceof AsyncDownloader;
+    }
+
+    Call newCall(Request request, int networkPolicy) {
+        return ((AsyncDownloader) downloader).newCall(createRequest(request, networkPolicy));
+    }
+
+    /**
+     * Enqueue {@code call} and report its result to {@code callback} on one of the Downloader's
+     * threads, once the whole body has been read.
+     */
+    void enqueue(Call call, final Request request, final LoadCallback callback) {
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                callback.onFailure(e);
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                Result result;
+                try {
+                    result = toResult(request, response, true);
+                } catch (IOException e) {
+                    callback.onFailure(e);
+                    return;
+                }
+                callback.onResult(result);
+            }
+        });
+    }
+
+    /**
+     * Check {@code response} and return its body as a result. A {@code buffered} body is read
+     * completely, so that decoding it never waits for the network.
+     */
+    private Result toResult(Request request, Response response, boolean buffered) throws IOException {
         ResponseBody body = response.body();
         if (body == null) return null;
 
@@ -93,9 +179,43 @@ class NetworkRequestHandler extends RequestHandler {
         if (loadedFrom == NETWORK && body.contentLength() > 0) {
             stats.dispatchDownloadFinished(body.contentLength());
         }
+        if (buffered) {
+            Buffer buffer = new Buffer();
+            try (BufferedSource source = body.source()) {
+                source.readAll(buffer);
+            }
+            return new Result(buffer, loadedFrom);
+        }
         return new Result(body.source(), loadedFrom);
     }
 
+    /**
+     * Returns the cached copy regardless of its age, marked stale if it needs revalidation, or
+     * {@code null} if nothing is cached.
+     */
+    private Result loadStale(Request request) throws IOException {
+        okhttp3.Request cacheRequest = new okhttp3.Request.Builder().url(request.uri.toString()).cacheControl(CacheControl.FORCE_CACHE).build();
+        Response response = downloader.load(cacheRequest);
+        ResponseBody body = response.body();
+        if (body == null) {
+            return null;
+        }
+        // Unsatisfiable requests are answered with 504 when nothing is cached.
+        if (!response.isSuccessful() || response.cacheResponse() == null || body.contentLength() == 0) {
+            body.close();
+            return null;
+        }
+        boolean stale = false;
+        List<String> warnings = response.headers("Warning");
+        for (int i = 0, n = warnings.size(); i < n; i++) {
+            if (warnings.get(i).startsWith(STALE_WARNING)) {
+                stale = true;
+                break;
+            }
+        }
+        return new Result(null, body.source(), DISK, 0, stale);
+    }
+
     @Override
     int getRetryCount() {
         return 2;
@@ -111,6 +231,12 @@ class NetworkRequestHandler extends RequestHandler {
         return true;
     }
 
+    interface LoadCallback {
+        void onResult(Result result);
+
+        void onFailure(IOException e);
+    }
+
     static class ContentLengthException extends IOException {
         ContentLengthException(String message) {
             super(message);
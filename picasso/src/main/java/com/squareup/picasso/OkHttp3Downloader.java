@@ -20,7 +20,7 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
 
-import com.squareup.picasso.interfaces.Downloader;
+import com.squareup.picasso.interfaces.AsyncDownloader;
 
 import java.io.File;
 import java.io.IOException;
@@ -34,7 +34,7 @@ import okhttp3.Response;
 /**
  * A {@link Downloader} which uses OkHttp to download images.
  */
-public final class OkHttp3Downloader implements Downloader {
+public final class OkHttp3Downloader implements AsyncDownloader {
     @VisibleForTesting
     final Call.Factory client;
     private final Cache cache;
@@ -103,6 +103,12 @@ public final class OkHttp3Downloader implements Downloader {
         return client.newCall(request).execute();
     }
 
+    @NonNull
+    @Override
+    public Call newCall(@NonNull Request request) {
+        return client.newCall(request);
+    }
+
     @Override
     public void shutdown() {
         if (!sharedClient && cache != null) {
@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.squareup.picasso.interfaces.BitmapPool;
+import com.squareup.picasso.interfaces.Cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A memory cache which is split into named partitions, each with its own byte quota and
+ * least-recently used eviction, so that one screen loading many images cannot evict the images
+ * another screen depends on.
+ * <p>
+ * Requests are assigned to a partition with {@link RequestCreator#cachePartition(String)} or by
+ * using the partition name as their {@link RequestCreator#tag(Object) tag}. All other requests use
+ * the default partition, which receives the part of the cache not assigned to named partitions.
+ * <p>
+ * A partition may grow beyond its quota while other partitions leave theirs unused. When the cache
+ * is full, entries are evicted from the partition which exceeds its quota the most, so borrowed
+ * space is returned before any partition is pushed below its quota.
+ */
+public final class PartitionedCache implements Cache {
+    /**
+     * The name of the partition used by requests which are not assigned to a named partition.
+     */
+    public static final String DEFAULT_PARTITION = "default";
+
+    private final int maxSize;
+    private final BitmapPool bitmapPool;
+    private final Map<String, Partition> partitions;
+    private final Partition defaultPartition;
+    private final Map<CacheKey, Entry> entries = new HashMap<>();
+    private final CacheKeyIndex index = new CacheKeyIndex();
+    private int size;
+    private int hitCount;
+    private int missCount;
+
+    PartitionedCache(Builder builder) {
+        this.maxSize = builder.maxSize;
+        this.bitmapPool = builder.bitmapPool != null ? builder.bitmapPool : BitmapPool.NONE;
+        this.partitions = new LinkedHashMap<>();
+        int assigned = 0;
+        for (Map.Entry<String, Integer> quota : builder.quotas.entrySet()) {
+            partitions.put(quota.getKey(), new Partition(quota.getKey(), quota.getValue()));
+            assigned += quota.getValue();
+        }
+        this.defaultPartition = new Partition(DEFAULT_PARTITION, maxSize - assigned);
+        partitions.put(DEFAULT_PARTITION, defaultPartition);
+    }
+
+    private Partition partitionFor(Object tag, String partition) {
+        Partition result = partition != null ? partitions.get(partition) : null;
+        if (result == null && tag instanceof String) {
+            result = partitions.get(tag);
+        }
+        return result != null ? result : defaultPartition;
+    }
+
+    @Nullable
+    @Override
+    public Bitmap get(@NonNull String key) {
+        return get(CacheKey.fromString(key));
+    }
+
+    @Nullable
+    @Override
+    public synchronized Bitmap get(@NonNull CacheKey key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        // Touch the entry in its partition's access order.
+        entry.partition.map.get(key);
+        entry.partition.hitCount++;
+        hitCount++;
+        return entry.bitmap;
+    }
+
+    @Override
+    public void set(@NonNull String key, @NonNull Bitmap bitmap) {
+        set(CacheKey.fromString(key), bitmap, null, null);
+    }
+
+    @Override
+    public void set(@NonNull String key, @NonNull Bitmap bitmap, @Nullable Object tag) {
+        set(CacheKey.fromString(key), bitmap, tag, null);
+    }
+
+    @Override
+    public void set(@NonNull CacheKey key, @NonNull Bitmap bitmap, @Nullable Object tag) {
+        set(key, bitmap, tag, null);
+    }
+
+    @Override
+    public void set(@NonNull CacheKey key, @NonNull Bitmap bitmap, @Nullable Object tag, @Nullable String partition) {
+        int byteCount = Utils.getBitmapBytes(bitmap);
+
+        // If the bitmap is too big for the cache, don't even attempt to store it. Doing so would
+        // cause the cache to be cleared. Whatever is stored for the key is left in place.
+        if (byteCount > maxSize) {
+            return;
+        }
+
+        List<Bitmap> evicted = new ArrayList<>(2);
+        synchronized (this) {
+            remove(key, evicted);
+            // Storing the same bitmap again must not pool it.
+            evicted.remove(bitmap);
+
+            Partition target = partitionFor(tag, partition);
+            Entry entry = new Entry(key, bitmap, byteCount, target);
+            entries.put(key, entry);
+            target.map.put(key, entry);
+            target.size += byteCount;
+            size += byteCount;
+            index.add(key, bitmap, tag);
+
+            evict(maxSize, evicted);
+        }
+
+        // Hand bitmaps back outside of the lock, pools may be slow or contended.
+        for (int i = 0, n = evicted.size(); i < n; i++) {
+            ActiveResources.recycle(bitmapPool, evicted.get(i));
+        }
+    }
+
+    /**
+     * Evict until the cache holds at most {@code maxSize} bytes, always from the partition which
+     * is furthest over its quota.
+     */
+    private void evict(int maxSize, List<Bitmap> evicted) {
+        while (size > maxSize) {
+            Partition victim = null;
+            long overQuota = Long.MIN_VALUE;
+            for (Partition partition : partitions.values()) {
+                if (partition.size > 0 && (long) partition.size - partition.maxSize > overQuota) {
+                    overQuota = (long) partition.size - partition.maxSize;
+                    victim = partition;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            Iterator<Entry> iterator = victim.map.values().iterator();
+            Entry eldest = iterator.next();
+            iterator.remove();
+            entries.remove(eldest.key);
+            victim.size -= eldest.byteCount;
+            victim.evictionCount++;
+            size -= eldest.byteCount;
+            index.remove(eldest.key);
+            evicted.add(eldest.bitmap);
+        }
+    }
+
+    private void remove(CacheKey key, List<Bitmap> evicted) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            entry.partition.map.remove(key);
+            entry.partition.size -= entry.byteCount;
+            size -= entry.byteCount;
+            index.remove(key);
+            evicted.add(entry.bitmap);
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public void clear() {
+        trimToSize(-1);
+    }
+
+    /**
+     * Evict entries until the cache holds at most {@code maxSize} bytes, starting with the
+     * partitions which exceed their quota the most.
+     */
+    @Override
+    public void trimToSize(int maxSize) {
+        List<Bitmap> evicted = new ArrayList<>();
+        synchronized (this) {
+            evict(maxSize, evicted);
+        }
+        for (int i = 0, n = evicted.size(); i < n; i++) {
+            ActiveResources.recycle(bitmapPool, evicted.get(i));
+        }
+    }
+
+    @Override
+    public void clearKeyUri(String uri) {
+        List<Bitmap> evicted = new ArrayList<>();
+        synchronized (this) {
+            // Keys are prefixed with a URI followed by '\n', which is exactly their key base.
+            for (CacheKey key : index.keysForBase(uri)) {
+                remove(key, evicted);
+            }
+        }
+        for (int i = 0, n = evicted.size(); i < n; i++) {
+            ActiveResources.recycle(bitmapPool, evicted.get(i));
+        }
+    }
+
+    @Override
+    public void clearTag(@NonNull Object tag) {
+        List<Bitmap> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (CacheKey key : index.keysForTag(tag)) {
+                remove(key, evicted);
+            }
+        }
+        for (int i = 0, n = evicted.size(); i < n; i++) {
+            ActiveResources.recycle(bitmapPool, evicted.get(i));
+        }
+    }
+
+    @Nullable
+    @Override
+    public CacheKey findVariant(@NonNull String keyBase, int minWidth, int minHeight) {
+        return index.findVariant(keyBase, minWidth, minHeight);
+    }
+
+    @Override
+    public boolean respectsPins() {
+        return true;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned a value.
+     */
+    public synchronized int hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned {@code null}.
+     */
+    public synchronized int missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the size, quota, hits and evictions of every partition, the default partition last.
+     */
+    @NonNull
+    public synchronized List<StatsSnapshot.PartitionStats> partitionStats() {
+        List<StatsSnapshot.PartitionStats> stats = new ArrayList<>(partitions.size());
+        for (Partition partition : partitions.values()) {
+            stats.add(new StatsSnapshot.PartitionStats(partition.name, partition.maxSize, partition.size, partition.hitCount, partition.evictionCount));
+        }
+        return stats;
+    }
+
+    static final class Entry {
+        final CacheKey key;
+        final Bitmap bitmap;
+        final int byteCount;
+        final Partition partition;
+
+        Entry(CacheKey key, Bitmap bitmap, int byteCount, Partition partition) {
+            this.key = key;
+            this.bitmap = bitmap;
+            this.byteCount = byteCount;
+            this.partition = partition;
+        }
+    }
+
+    static final class Partition {
+        final String name;
+        final int maxSize;
+        final LinkedHashMap<CacheKey, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
+        int size;
+        long hitCount;
+        long evictionCount;
+
+        Partition(String name, int maxSize) {
+            this.name = name;
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * Fluent API for creating {@link PartitionedCache} instances.
+     */
+    public static final class Builder {
+        private final int maxSize;
+        private final Map<String, Integer> quotas = new LinkedHashMap<>();
+        private int assigned;
+        private BitmapPool bitmapPool;
+
+        /**
+         * Start building a cache using an appropriate portion of the available RAM as the maximum
+         * size.
+         */
+        public Builder(@NonNull Context context) {
+            this(Utils.calculateMemoryCacheSize(context));
+        }
+
+        /**
+         * Start building a cache with a given maximum size in bytes.
+         */
+        public Builder(int maxByteCount) {
+            if (maxByteCount <= 0) {
+                throw new IllegalArgumentException("Max byte count must be positive.");
+            }
+            this.maxSize = maxByteCount;
+        }
+
+        /**
+         * Add a partition named {@code name} which is guaranteed {@code maxByteCount} bytes of the
+         * cache. The quotas of all partitions must fit in the maximum size; the rest is the quota of
+         * the {@link #DEFAULT_PARTITION default partition}.
+         */
+        public Builder partition(@NonNull String name, int maxByteCount) {
+            if (maxByteCount <= 0) {
+                throw new IllegalArgumentException("Max byte count must be positive.");
+            }
+            if (DEFAULT_PARTITION.equals(name) || quotas.containsKey(name)) {
+                throw new IllegalStateException("Partition '" + name + "' already set.");
+            }
+            if ((long) assigned + maxByteCount > maxSize) {
+                throw new IllegalArgumentException("Partition quotas exceed the cache size of " + maxSize + " bytes.");
+            }
+            quotas.put(name, maxByteCount);
+            assigned += maxByteCount;
+            return this;
+        }
+
+        /**
+         * Offer evicted bitmaps to {@code bitmapPool}.
+         */
+        public Builder bitmapPool(@NonNull BitmapPool bitmapPool) {
+            if (this.bitmapPool != null) {
+                throw new IllegalStateException("Bitmap pool already set.");
+            }
+            this.bitmapPool = bitmapPool;
+            return this;
+        }
+
+        /**
+         * Create the {@link PartitionedCache} instance.
+         */
+        @NonNull
+        public PartitionedCache build() {
+            return new PartitionedCache(this);
+        }
+    }
+}
@@ -20,13 +20,16 @@ import static com.squareup.picasso.Action.RequestWeakReference;
 import static com.squareup.picasso.Dispatcher.HUNTER_BATCH_COMPLETE;
 import static com.squareup.picasso.Dispatcher.REQUEST_BATCH_RESUME;
 import static com.squareup.picasso.Dispatcher.REQUEST_GCED;
+import static com.squareup.picasso.Dispatcher.TARGET_GCED;
 import static com.squareup.picasso.MemoryPolicy.shouldReadFromMemoryCache;
 import static com.squareup.picasso.Picasso.LoadedFrom.MEMORY;
+import static com.squareup.picasso.Picasso.LoadedFrom.NETWORK;
 import static com.squareup.picasso.Utils.OWNER_MAIN;
 import static com.squareup.picasso.Utils.THREAD_LEAK_CLEANING_MS;
 import static com.squareup.picasso.Utils.THREAD_PREFIX;
 import static com.squareup.picasso.Utils.VERB_CANCELED;
 import static com.squareup.picasso.Utils.VERB_COMPLETED;
+import static com.squareup.picasso.Utils.VERB_ENQUEUED;
 import static com.squareup.picasso.Utils.VERB_ERRORED;
 import static com.squareup.picasso.Utils.VERB_RESUMED;
 import static com.squareup.picasso.Utils.checkMain;
@@ -49,11 +52,15 @@ import androidx.annotation.IdRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.squareup.picasso.interfaces.BitmapPool;
 import com.squareup.picasso.interfaces.Cache;
+import com.squareup.picasso.interfaces.DiskCache;
 import com.squareup.picasso.interfaces.Downloader;
+import com.squareup.picasso.interfaces.KeyNormalizer;
 import com.squareup.picasso.interfaces.Target;
 
 import java.io.File;
+import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -71,6 +78,9 @@ import java.util.concurrent.ExecutorService;
 public class Picasso {
 
     static final String TAG = "Picasso";
+    private static final String HOT_KEYS_FILE = "picasso-hot-keys";
+    private static final String PIXEL_CACHE_DIR = "picasso-pixels";
+    private static final Object PREWARM_TAG = new Object();
     static final Handler HANDLER = new Handler(Looper.getMainLooper()) {
         @Override
         public void handleMessage(Message msg) {
@@ -91,6 +101,11 @@ public class Picasso {
                     action.picasso.cancelExistingRequest(action.getTarget());
                     break;
                 }
+                case TARGET_GCED: {
+                    TargetGcedReference gced = (TargetGcedReference) msg.obj;
+                    gced.picasso.activeResources.release(gced.reference);
+                    break;
+                }
                 case REQUEST_BATCH_RESUME:
                     @SuppressWarnings("unchecked") List<Action<?>> batch = (List<Action<?>>) msg.obj;
                     for (int i = 0, n = batch.size(); i < n; i++) {
@@ -108,6 +123,16 @@ public class Picasso {
     final Context context;
     final Dispatcher dispatcher;
     final Cache cache;
+    final BitmapPool bitmapPool;
+    final ActiveResources activeResources;
+    final EncodedMemoryCache encodedCache; // Null when disabled.
+    final HotKeyStore hotKeys; // Null when prewarming is disabled.
+    final PixelDiskCache pixelCache; // Null when disabled.
+    final DiskCache resultDiskCache; // Null when disabled.
+    final DiskCacheWriter diskWriter; // Null when there are no disk caches.
+    final SeedPack seedPack; // Null when there are no seeds.
+    final ContentIndex contentIndex; // Null when content deduplication is disabled.
+    final KeyNormalizer keyNormalizer; // Null when URIs are used as they are.
     final Stats stats;
     final Map<Object, Action<?>> targetToAction;
     final Map<ImageView, DeferredRequestCreator> targetToDeferredRequestCreator;
@@ -116,15 +141,28 @@ public class Picasso {
     private final Listener listener;
     private final RequestTransformer requestTransformer;
     private final CleanupThread cleanupThread;
+    final MemoryTrimmer memoryTrimmer;
     private final List<RequestHandler> requestHandlers;
+    private final List<Action<?>> prewarmActions = new ArrayList<>();
+    private volatile boolean prewarmStopped;
     boolean indicatorsEnabled;
     volatile boolean loggingEnabled;
     boolean shutdown;
 
-    Picasso(Context context, Dispatcher dispatcher, Cache cache, Listener listener, RequestTransformer requestTransformer, List<RequestHandler> extraRequestHandlers, Stats stats, Bitmap.Config defaultBitmapConfig, boolean indicatorsEnabled, boolean loggingEnabled) {
+    Picasso(Context context, Dispatcher dispatcher, Cache cache, BitmapPool bitmapPool, ActiveResources activeResources, EncodedMemoryCache encodedCache, HotKeyStore hotKeys, PixelDiskCache pixelCache, DiskCache resultDiskCache, SeedPack seedPack, ContentIndex contentIndex, KeyNormalizer keyNormalizer, Listener listener, RequestTransformer requestTransformer, List<RequestHandler> extraRequestHandlers, Stats stats, Bitmap.Config defaultBitmapConfig, boolean indicatorsEnabled, boolean loggingEnabled) {
         this.context = context;
         this.dispatcher = dispatcher;
         this.cache = cache;
+        this.bitmapPool = bitmapPool;
+        this.activeResources = activeResources;
+        this.encodedCache = encodedCache;
+        this.hotKeys = hotKeys;
+        this.pixelCache = pixelCache;
+        this.resultDiskCache = resultDiskCache;
+        this.diskWriter = pixelCache != null || resultDiskCache != null ? new DiskCacheWriter(pixelCache, resultDiskCache, cache, bitmapPool, activeResources, stats) : null;
+        this.seedPack = seedPack;
+        this.contentIndex = contentIndex;
+        this.keyNormalizer = keyNormalizer;
         this.listener = listener;
         this.requestTransformer = requestTransformer;
         this.defaultBitmapConfig = defaultBitmapConfig;
@@ -136,16 +174,16 @@ public class Picasso {
         // ResourceRequestHandler needs to be the first in the list to avoid
         // forcing other RequestHandlers to perform null checks on request.uri
         // to cover the (request.resourceId != 0) case.
-        allRequestHandlers.add(new ResourceRequestHandler(context));
+        allRequestHandlers.add(new ResourceRequestHandler(context, bitmapPool, stats));
         if (extraRequestHandlers != null) {
             allRequestHandlers.addAll(extraRequestHandlers);
         }
         allRequestHandlers.add(new ContactsPhotoRequestHandler(context));
-        allRequestHandlers.add(new MediaStoreRequestHandler(context));
-        allRequestHandlers.add(new ContentStreamRequestHandler(context));
+        allRequestHandlers.add(new MediaStoreRequestHandler(context, stats));
+        allRequestHandlers.add(new ContentStreamRequestHandler(context, stats));
         allRequestHandlers.add(new AssetRequestHandler(context));
-        allRequestHandlers.add(new FileRequestHandler(context));
-        allRequestHandlers.add(new NetworkRequestHandler(dispatcher.downloader, stats));
+        allRequestHandlers.add(new FileRequestHandler(context, stats));
+        allRequestHandlers.add(new NetworkRequestHandler(dispatcher.downloader, stats, seedPack));
         requestHandlers = Collections.unmodifiableList(allRequestHandlers);
 
         this.stats = stats;
@@ -154,8 +192,19 @@ public class Picasso {
         this.indicatorsEnabled = indicatorsEnabled;
         this.loggingEnabled = loggingEnabled;
         this.referenceQueue = new ReferenceQueue<>();
-        this.cleanupThread = new CleanupThread(referenceQueue);
+        this.cleanupThread = new CleanupThread(this, referenceQueue);
         this.cleanupThread.start();
+        this.memoryTrimmer = new MemoryTrimmer(context, cache, bitmapPool, encodedCache);
+        this.memoryTrimmer.register();
+
+        if (hotKeys != null) {
+            dispatcher.handler.post(() -> {
+                List<Request> requests = hotKeys.load();
+                HANDLER.post(() -> prewarm(requests));
+            });
+        } else {
+            prewarmStopped = true;
+        }
     }
 
     /**
@@ -348,7 +397,18 @@ public class Picasso {
      */
     public void invalidate(@Nullable Uri uri) {
         if (uri != null) {
-            cache.clearKeyUri(uri.toString());
+            String keyBase = keyBase(uri);
+            cache.clearKeyUri(keyBase);
+            if (encodedCache != null) {
+                encodedCache.clearKeyUri(keyBase);
+            }
+            if (contentIndex != null) {
+                contentIndex.clearKeyUri(keyBase);
+            }
+            if (diskWriter != null) {
+                // Ordered after pending writes of the same source.
+                diskWriter.clearKeyUri(keyBase);
+            }
         }
     }
 
@@ -375,6 +435,16 @@ public class Picasso {
         invalidate(Uri.fromFile(file));
     }
 
+    /**
+     * Invalidate all memory cached images which were loaded by requests with the specified
+     * {@code tag}.
+     *
+     * @see RequestCreator#tag(Object)
+     */
+    public void invalidateTag(@NonNull Object tag) {
+        cache.clearTag(tag);
+    }
+
     /**
      * Toggle whether to display debug indicators on images.
      */
@@ -430,8 +500,20 @@ public class Picasso {
         if (shutdown) {
             return;
         }
+        memoryTrimmer.unregister();
         cache.clear();
+        activeResources.clear();
+        bitmapPool.clear();
+        if (encodedCache != null) {
+            encodedCache.clear();
+        }
+        if (contentIndex != null) {
+            contentIndex.clear();
+        }
         cleanupThread.shutdown();
+        if (diskWriter != null) {
+            diskWriter.shutdown();
+        }
         stats.shutdown();
         dispatcher.shutdown();
         for (DeferredRequestCreator deferredRequestCreator : targetToDeferredRequestCreator.values()) {
@@ -458,9 +540,28 @@ public class Picasso {
         if (targetToDeferredRequestCreator.containsKey(view)) {
             cancelExistingRequest(view);
         }
+        activeResources.release(view);
         targetToDeferredRequestCreator.put(view, request);
     }
 
+    /**
+     * Create the cache key of {@code request}, normalizing its URI.
+     */
+    CacheKey createKey(Request request) {
+        if (keyNormalizer == null || request.stableKey != null || request.uri == null) {
+            return new CacheKey(request);
+        }
+        return new CacheKey(request, keyNormalizer.normalize(request.uri));
+    }
+
+    /**
+     * Returns the key base of requests for {@code uri}, normalizing it.
+     */
+    String keyBase(Uri uri) {
+        String normalized = keyNormalizer != null ? keyNormalizer.normalize(uri) : null;
+        return normalized != null ? normalized : uri.toString();
+    }
+
     void enqueueAndSubmit(Action<?> action) {
         Object target = action.getTarget();
         if (target != null && targetToAction.get(target) != action) {
@@ -472,19 +573,106 @@ public class Picasso {
     }
 
     void submit(Action<?> action) {
+        if (!prewarmStopped && action.getTag() != PREWARM_TAG) {
+            // Requests may be submitted from any thread, prewarm actions are owned by the main thread.
+            prewarmStopped = true;
+            HANDLER.post(this::cancelPrewarm);
+        }
         dispatcher.dispatchSubmit(action);
     }
 
-    Bitmap quickMemoryCacheCheck(String key) {
+    /**
+     * Fetch the results of requests which were hot in a previous process at low priority, unless
+     * a real request was submitted in the meantime.
+     */
+    void prewarm(List<Request> requests) {
+        if (prewarmStopped || shutdown) {
+            return;
+        }
+        for (int i = 0, n = requests.size(); i < n; i++) {
+            Request request = requests.get(i);
+            request.id = RequestCreator.nextId.getAndIncrement();
+            request.started = System.nanoTime();
+            CacheKey key = createKey(request);
+            if (cache.get(key) != null) {
+                continue;
+            }
+            Action<?> action = new FetchAction(this, request, 0, 0, PREWARM_TAG, key, null);
+            prewarmActions.add(action);
+            submit(action);
+        }
+        if (loggingEnabled) {
+            log(OWNER_MAIN, VERB_ENQUEUED, "[prewarm]", prewarmActions.size() + " requests");
+        }
+    }
+
+    /**
+     * Cancel the prewarm fetches which have not completed. Fetches which were joined by a real
+     * request keep running for it.
+     */
+    private void cancelPrewarm() {
+        for (int i = 0, n = prewarmActions.size(); i < n; i++) {
+            Action<?> action = prewarmActions.get(i);
+            action.cancel();
+            dispatcher.dispatchCancel(action);
+        }
+        prewarmActions.clear();
+    }
+
+    /**
+     * Called after a hunter stored {@code bitmap} for {@code request} in the memory cache.
+     */
+    void onCacheWrite(Request request, CacheKey key, Bitmap bitmap) {
+        memoryTrimmer.onCacheWrite();
+        if (hotKeys != null) {
+            hotKeys.record(request, key, bitmap);
+        }
+    }
+
+    /**
+     * Called when the bitmap for {@code key} was found in memory.
+     */
+    void onMemoryHit(CacheKey key) {
+        if (hotKeys != null) {
+            hotKeys.touch(key);
+        }
+    }
+
+    Bitmap quickMemoryCacheCheck(CacheKey key) {
+        Bitmap active = activeResources.get(key);
+        if (active != null) {
+            stats.dispatchActiveHit();
+            onMemoryHit(key);
+            return active;
+        }
         Bitmap cached = cache.get(key);
+        if (cached == null && contentIndex != null) {
+            // Another key may hold the same content.
+            CacheKey holder = contentIndex.resolve(key);
+            if (holder != null) {
+                cached = activeResources.get(holder);
+                if (cached == null) {
+                    cached = cache.get(holder);
+                }
+            }
+        }
         if (cached != null) {
             stats.dispatchCacheHit();
+            onMemoryHit(key);
         } else {
             stats.dispatchCacheMiss();
         }
         return cached;
     }
 
+    /**
+     * Record that {@code target} displays {@code bitmap} so that it can be found by {@code key}
+     * even after being evicted from the memory cache.
+     */
+    void activate(Object target, CacheKey key, Bitmap bitmap) {
+        activeResources.activate(target, key, bitmap, referenceQueue);
+    }
+
     void complete(BitmapHunter hunter) {
         Action<?> single = hunter.getAction();
         List<Action<?>> joined = hunter.getActions();
@@ -493,6 +681,7 @@ public class Picasso {
         boolean shouldDeliver = single != null || hasMultiple;
 
         if (!shouldDeliver) {
+            hunter.unpin();
             return;
         }
 
@@ -500,23 +689,37 @@ public class Picasso {
         Exception exception = hunter.getException();
         Bitmap result = hunter.getResult();
         LoadedFrom from = hunter.getLoadedFrom();
+        boolean stale = hunter.isStale();
 
         if (single != null) {
-            deliverAction(result, from, single, exception);
+            deliverAction(result, from, single, exception, stale);
         }
 
         if (hasMultiple) {
             for (int i = 0, n = joined.size(); i < n; i++) {
                 Action<?> join = joined.get(i);
-                deliverAction(result, from, join, exception);
+                deliverAction(result, from, join, exception, stale);
             }
         }
+        // Delivered targets hold the bitmap active now.
+        hunter.unpin();
 
-        if (listener != null && exception != null) {
+        // A failed revalidation leaves the stale image in place.
+        if (listener != null && exception != null && !hunter.revalidation) {
             listener.onImageLoadFailed(this, uri, exception);
         }
     }
 
+    void deliverPreview(List<Action<?>> actions, Bitmap preview) {
+        for (int i = 0, n = actions.size(); i < n; i++) {
+            Action<?> action = actions.get(i);
+            // Skip actions which already completed, in case the final image overtook this preview.
+            if (!action.isCancelled() && targetToAction.get(action.getTarget()) == action) {
+                action.preview(preview);
+            }
+        }
+    }
+
     void resumeAction(Action<?> action) {
         Bitmap bitmap = null;
         if (shouldReadFromMemoryCache(action.memoryPolicy)) {
@@ -539,10 +742,23 @@ public class Picasso {
     }
 
     private void deliverAction(Bitmap result, LoadedFrom from, Action<?> action, Exception e) {
+        deliverAction(result, from, action, e, false);
+    }
+
+    private void deliverAction(Bitmap result, LoadedFrom from, Action<?> action, Exception e, boolean stale) {
         if (action.isCancelled()) {
             return;
         }
-        if (!action.willReplay()) {
+        if (action.revalidating) {
+            // Only a changed image is delivered again, otherwise the stale one stays in place.
+            if (result == null || from != NETWORK) {
+                targetToAction.remove(action.getTarget());
+                return;
+            }
+            action.revalidating = false;
+        }
+        boolean revalidate = stale && result != null;
+        if (!action.willReplay() && !revalidate) {
             targetToAction.remove(action.getTarget());
         }
         if (result != null) {
@@ -553,6 +769,11 @@ public class Picasso {
             if (loggingEnabled) {
                 log(OWNER_MAIN, VERB_COMPLETED, action.request.logId(), "from " + from);
             }
+            if (revalidate) {
+                // The target stays bound to the action until the revalidation completes.
+                action.revalidating = true;
+                dispatcher.dispatchSubmit(action);
+            }
         } else {
             action.error(e);
             if (loggingEnabled) {
@@ -568,6 +789,7 @@ public class Picasso {
             action.cancel();
             dispatcher.dispatchCancel(action);
         }
+        activeResources.release(target);
         if (target instanceof ImageView) {
             ImageView targetImageView = (ImageView) target;
             DeferredRequestCreator deferredRequestCreator = targetToDeferredRequestCreator.remove(targetImageView);
@@ -590,7 +812,7 @@ public class Picasso {
      * Describes where the image was loaded from.
      */
     public enum LoadedFrom {
-        MEMORY(Color.GREEN), DISK(Color.BLUE), NETWORK(Color.RED);
+        MEMORY(Color.GREEN), DISK(Color.BLUE), NETWORK(Color.RED), PIXEL_CACHE(Color.CYAN);
 
         final int debugColor;
 
@@ -640,10 +862,12 @@ public class Picasso {
      * request.
      */
     private static class CleanupThread extends Thread {
+        private final Picasso picasso;
         private final ReferenceQueue<Object> referenceQueue;
         private final Handler handler;
 
-        CleanupThread(ReferenceQueue<Object> referenceQueue) {
+        CleanupThread(Picasso picasso, ReferenceQueue<Object> referenceQueue) {
+            this.picasso = picasso;
             this.referenceQueue = referenceQueue;
             this.handler = Picasso.HANDLER;
             setDaemon(true);
@@ -660,11 +884,15 @@ public class Picasso {
                     // We're forcing this reference to be cleared and replaced by looping every second
                     // when there is nothing to do.
                     // This behavior has been tested and reproduced with heap dumps.
-                    RequestWeakReference<?> remove = (RequestWeakReference<?>) referenceQueue.remove(THREAD_LEAK_CLEANING_MS);
+                    Reference<?> remove = referenceQueue.remove(THREAD_LEAK_CLEANING_MS);
                     Message message = handler.obtainMessage();
-                    if (remove != null) {
+                    if (remove instanceof RequestWeakReference) {
                         message.what = REQUEST_GCED;
-                        message.obj = remove.action;
+                        message.obj = ((RequestWeakReference<?>) remove).action;
+                        handler.sendMessage(message);
+                    } else if (remove instanceof ActiveResources.TargetReference) {
+                        message.what = TARGET_GCED;
+                        message.obj = new TargetGcedReference(picasso, (ActiveResources.TargetReference) remove);
                         handler.sendMessage(message);
                     } else {
                         message.recycle();
@@ -685,6 +913,16 @@ public class Picasso {
         }
     }
 
+    private static final class TargetGcedReference {
+        final Picasso picasso;
+        final ActiveResources.TargetReference reference;
+
+        TargetGcedReference(Picasso picasso, ActiveResources.TargetReference reference) {
+            this.picasso = picasso;
+            this.reference = reference;
+        }
+    }
+
     /**
      * Fluent API for creating {@link Picasso} instances.
      */
@@ -694,6 +932,14 @@ public class Picasso {
         private Downloader downloader;
         private ExecutorService service;
         private Cache cache;
+        private BitmapPool bitmapPool;
+        private int encodedMemoryCacheSize;
+        private int prewarmSize;
+        private DiskCacheSizePolicy pixelDiskCachePolicy;
+        private DiskCache resultDiskCache;
+        private SeedPack seedPack;
+        private boolean contentDedupeEnabled;
+        private KeyNormalizer keyNormalizer;
         private Listener listener;
         private RequestTransformer transformer;
         private List<RequestHandler> requestHandlers;
@@ -753,6 +999,154 @@ public class Picasso {
             return this;
         }
 
+        /**
+         * Specify a {@link BitmapPool} from which decodes reuse bitmaps. When the default memory
+         * cache is used its evicted bitmaps are returned to this pool, as are intermediate bitmaps
+         * discarded while transforming a result.
+         * <p>
+         * Bitmaps which Picasso delivered to an {@link ImageView} or {@link Target} are not reused
+         * while that target still displays them.
+         * <p>
+         * <b>WARNING:</b> Bitmaps handed out in other ways, such as through
+         * {@link RequestCreator#get()}, may still be reused once evicted. Only enable pooling when
+         * such bitmaps are not kept around.
+         */
+        public Builder bitmapPool(@NonNull BitmapPool bitmapPool) {
+            if (this.bitmapPool != null) {
+                throw new IllegalStateException("Bitmap pool already set.");
+            }
+            this.bitmapPool = bitmapPool;
+            return this;
+        }
+
+        /**
+         * Keep the encoded bytes of recently loaded images in memory, up to {@code maxByteCount}
+         * bytes. When a decoded image has been evicted from the memory cache it is decoded again
+         * from these bytes instead of being loaded from disk or network. Encoded images are
+         * typically an order of magnitude smaller than their decoded pixels.
+         */
+        public Builder encodedMemoryCacheSize(int maxByteCount) {
+            if (maxByteCount <= 0) {
+                throw new IllegalArgumentException("Max byte count must be positive.");
+            }
+            if (this.encodedMemoryCacheSize != 0) {
+                throw new IllegalStateException("Encoded memory cache size already set.");
+            }
+            this.encodedMemoryCacheSize = maxByteCount;
+            return this;
+        }
+
+        /**
+         * Remember the requests whose results were most recently used from the memory cache and,
+         * when the next process builds its instance, fetch up to {@code maxByteCount} bytes of them
+         * at {@link Priority#LOW low} priority. Prewarming stops as soon as the first real request
+         * is submitted; fetches which have not completed by then are canceled.
+         * <p>
+         * Only requests with a URI and without custom transformations are remembered.
+         */
+        public Builder prewarm(int maxByteCount) {
+            if (maxByteCount <= 0) {
+                throw new IllegalArgumentException("Max byte count must be positive.");
+            }
+            if (this.prewarmSize != 0) {
+                throw new IllegalStateException("Prewarm size already set.");
+            }
+            this.prewarmSize = maxByteCount;
+            return this;
+        }
+
+        /**
+         * Store the final, transformed pixels of loaded images on disk, up to {@code maxByteCount}
+         * bytes. When an image is no longer in memory its pixels are restored from disk without
+         * decoding or transforming it again. Such images are reported as
+         * {@link LoadedFrom#PIXEL_CACHE}.
+         * <p>
+         * Decoded pixels are much larger than encoded images, so this is best suited to small images
+         * such as thumbnails.
+         *
+         * @see #pixelDiskCacheSize(DiskCacheSizePolicy)
+         */
+        public Builder pixelDiskCacheSize(long maxByteCount) {
+            if (maxByteCount <= 0) {
+                throw new IllegalArgumentException("Max byte count must be positive.");
+            }
+            return pixelDiskCacheSize(DiskCacheSizePolicy.fixed(maxByteCount));
+        }
+
+        /**
+         * Store the final, transformed pixels of loaded images on disk, within a budget which
+         * follows the free space of the device as described by {@code policy}.
+         *
+         * @see #pixelDiskCacheSize(long)
+         */
+        public Builder pixelDiskCacheSize(@NonNull DiskCacheSizePolicy policy) {
+            if (this.pixelDiskCachePolicy != null) {
+                throw new IllegalStateException("Pixel disk cache size already set.");
+            }
+            this.pixelDiskCachePolicy = policy;
+            return this;
+        }
+
+        /**
+         * Store resized and transformed results of requests for local sources, such as files,
+         * content providers, assets and resources, in {@code resultDiskCache}. Later requests for
+         * the same result read it instead of decoding and transforming the full-size source again,
+         * as long as the source has not changed since.
+         * <p>
+         * Network images are not stored, their responses are cached by the {@link Downloader}.
+         *
+         * @see FileDiskCache
+         * @see SegmentedDiskCache
+         * @see RequestHandler#getSourceVersion(Request)
+         */
+        public Builder resultDiskCache(@NonNull DiskCache resultDiskCache) {
+            if (this.resultDiskCache != null) {
+                throw new IllegalStateException("Result disk cache already set.");
+            }
+            this.resultDiskCache = resultDiskCache;
+            return this;
+        }
+
+        /**
+         * Answer network requests for the images bundled in {@code seedPack} from the APK, so that
+         * they are not downloaded on first launch.
+         */
+        public Builder seedPack(@NonNull SeedPack seedPack) {
+            if (this.seedPack != null) {
+                throw new IllegalStateException("Seed pack already set.");
+            }
+            this.seedPack = seedPack;
+            return this;
+        }
+
+        /**
+         * Toggle whether requests for different URLs which load identical bytes share one decoded
+         * image. The encoded bytes are hashed as they are loaded, and a request whose content and
+         * transformations match an image already in the memory cache reuses it instead of decoding
+         * again. Callers who know the hash ahead of time can declare it with
+         * {@link RequestCreator#contentHash(String)} to skip loading altogether.
+         */
+        public Builder contentDedupeEnabled(boolean enabled) {
+            this.contentDedupeEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Cache and share requests under the identity {@code keyNormalizer} maps their URIs to,
+         * rather than under the URIs themselves. This saves setting a
+         * {@linkplain RequestCreator#stableKey(String) stable key} on every request for URIs with
+         * volatile parts, such as signed URLs whose tokens rotate.
+         *
+         * @see KeyNormalizer#removeQueryParameters(String...)
+         */
+        public Builder keyNormalizer(@NonNull KeyNormalizer keyNormalizer) {
+            if (this.keyNormalizer != null) {
+                throw new IllegalStateException("Key normalizer already set.");
+            }
+            this.keyNormalizer = keyNormalizer;
+            return this;
+        }
+
         /**
          * Specify a listener for interesting events.
          */
@@ -820,21 +1214,44 @@ public class Picasso {
             if (downloader == null) {
                 downloader = new OkHttp3Downloader(context);
             }
+            if (bitmapPool == null) {
+                bitmapPool = BitmapPool.NONE;
+            }
+            ActiveResources activeResources = new ActiveResources();
+            // Never hand out a bitmap for reuse while it is still displayed.
+            BitmapPool pool = activeResources.guard(bitmapPool);
             if (cache == null) {
-                cache = new LruCache(context);
+                cache = new ConcurrentLruCache(context, pool);
+            }
+            EncodedMemoryCache encodedCache = null;
+            if (encodedMemoryCacheSize > 0) {
+                encodedCache = new EncodedMemoryCache(encodedMemoryCacheSize);
             }
+            PicassoExecutorService decodeService = null;
             if (service == null) {
+                // Fetching and decoding only run on separate pools when Picasso owns both of them.
                 service = new PicassoExecutorService();
+                decodeService = PicassoExecutorService.forDecoding();
             }
             if (transformer == null) {
                 transformer = RequestTransformer.IDENTITY;
             }
 
-            Stats stats = new Stats(cache);
+            Stats stats = new Stats(cache, pool);
 
-            Dispatcher dispatcher = new Dispatcher(context, service, downloader, cache, stats);
+            Dispatcher dispatcher = new Dispatcher(context, service, decodeService, downloader, cache, stats);
+
+            HotKeyStore hotKeys = null;
+            if (prewarmSize > 0) {
+                hotKeys = new HotKeyStore(new File(context.getCacheDir(), HOT_KEYS_FILE), prewarmSize, dispatcher.handler);
+            }
+
+            PixelDiskCache pixelCache = null;
+            if (pixelDiskCachePolicy != null) {
+                pixelCache = new PixelDiskCache(new File(context.getCacheDir(), PIXEL_CACHE_DIR), pixelDiskCachePolicy);
+            }
 
-            return new Picasso(context, dispatcher, cache, listener, transformer, requestHandlers, stats, defaultBitmapConfig, indicatorsEnabled, loggingEnabled);
+            return new Picasso(context, dispatcher, cache, pool, activeResources, encodedCache, hotKeys, pixelCache, resultDiskCache, seedPack, contentDedupeEnabled ? new ContentIndex() : null, keyNormalizer, listener, transformer, requestHandlers, stats, defaultBitmapConfig, indicatorsEnabled, loggingEnabled);
         }
     }
 }
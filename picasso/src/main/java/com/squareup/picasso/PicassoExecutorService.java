@@ -32,10 +32,64 @@ import java.util.concurrent.TimeUnit;
 class PicassoExecutorService extends ThreadPoolExecutor {
     private static final int DEFAULT_THREAD_COUNT = 3;
 
+    private volatile Runnable afterExecute;
+
     PicassoExecutorService() {
-        super(DEFAULT_THREAD_COUNT, DEFAULT_THREAD_COUNT, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), new Utils.PicassoThreadFactory());
+        this(DEFAULT_THREAD_COUNT);
+    }
+
+    PicassoExecutorService(int threadCount) {
+        super(threadCount, threadCount, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), new Utils.PicassoThreadFactory());
+    }
+
+    /**
+     * Create the pool which decodes and transforms fetched images. Decoding is bound by the CPU so
+     * there is one thread per core, whatever the network.
+     */
+    static PicassoExecutorService forDecoding() {
+        return new PicassoExecutorService(Runtime.getRuntime().availableProcessors());
     }
 
+    /**
+     * Returns the order in which hunters are run: higher priority first, then first come first
+     * served.
+     */
+    static int comparePriority(BitmapHunter hunter, BitmapHunter other) {
+        Picasso.Priority p1 = hunter.getPriority();
+        Picasso.Priority p2 = other.getPriority();
+
+        // High-priority requests are "lesser" so they are sorted to the front.
+        // Equal priorities are sorted by sequence number to provide FIFO ordering.
+        return (p1 == p2 ? hunter.sequence - other.sequence : p2.ordinal() - p1.ordinal());
+    }
+
+    /**
+     * Run {@code afterExecute} on the worker thread whenever a task finished or was skipped because
+     * it had been cancelled.
+     */
+    void setAfterExecute(Runnable afterExecute) {
+        this.afterExecute = afterExecute;
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        Runnable afterExecute = this.afterExecute;
+        if (afterExecute != null) {
+            afterExecute.run();
+        }
+    }
+
+    /**
+     * Returns whether at least {@code limit} tasks per thread are waiting in the queue.
+     */
+    boolean isSaturated(int limit) {
+        return getQueue().size() >= getMaximumPoolSize() * limit;
+    }
+
+    /**
+     * Size a fetching pool for the network. Only network bodies are decoded on the
+     * {@linkplain #forDecoding() decoding pool}; local images are still decoded on fetch threads.
+     */
     void adjustThreadCount(NetworkCapabilities capabilities) {
         if (capabilities == null || !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)) {
             setThreadCount(DEFAULT_THREAD_COUNT);
@@ -75,12 +129,7 @@ class PicassoExecutorService extends ThreadPoolExecutor {
 
         @Override
         public int compareTo(PicassoFutureTask other) {
-            Picasso.Priority p1 = hunter.getPriority();
-            Picasso.Priority p2 = other.hunter.getPriority();
-
-            // High-priority requests are "lesser" so they are sorted to the front.
-            // Equal priorities are sorted by sequence number to provide FIFO ordering.
-            return (p1 == p2 ? hunter.sequence - other.hunter.sequence : p2.ordinal() - p1.ordinal());
+            return comparePriority(hunter, other.hunter);
         }
     }
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import com.squareup.picasso.interfaces.BitmapPool;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A disk cache of final, transformed pixels. Restoring an entry copies the pixels from a
+ * memory-mapped file into a bitmap, which skips both decoding and transformation.
+ * <p>
+ * Every entry is a file named after the hashes of its key base and its full key, so that all
+ * entries of a source can be found without opening them. The file starts with a header holding
+ * the bitmap's dimensions, config and full key, followed by the raw pixels. Entries are evicted in
+ * least-recently used order once the cache exceeds its byte budget.
+ */
+final class PixelDiskCache {
+    private static final int MAGIC = 0x50495832; // "PIX2"
+    private static final int HEADER_SIZE = 24; // Magic, width, height, config, alpha, key length.
+    // Stored as the position in this table plus one, which unlike ordinal() does not depend on the
+    // platform's enum. Only append to it.
+    private static final String[] CONFIG_NAMES = {"ALPHA_8", "RGB_565", "ARGB_4444", "ARGB_8888", "RGBA_F16", "RGBA_1010102"};
+
+    private final DiskFileIndex index;
+
+    PixelDiskCache(File directory, DiskCacheSizePolicy policy) {
+        this.index = new DiskFileIndex(directory, policy);
+    }
+
+    /**
+     * Restore the pixels stored for {@code key} into a bitmap, reusing one from
+     * {@code bitmapPool} if possible, or return {@code null}.
+     */
+    Bitmap get(CacheKey key, BitmapPool bitmapPool) {
+        String name = DiskFileIndex.fileName(key);
+        if (!index.contains(name)) {
+            return null;
+        }
+
+        File file = new File(index.directory, name);
+        byte[] expectedKey = key.toString().getBytes(StandardCharsets.UTF_8);
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            MappedByteBuffer buffer = input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, input.length());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a pixel cache entry.");
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            Bitmap.Config config = decodeConfig(buffer.getInt());
+            if (config == null) {
+                throw new IOException("Unknown bitmap config.");
+            }
+            boolean hasAlpha = buffer.getInt() != 0;
+            byte[] storedKey = new byte[buffer.getInt()];
+            buffer.get(storedKey);
+            if (!Arrays.equals(storedKey, expectedKey)) {
+                // A hash collision. Leave the other entry alone.
+                return null;
+            }
+
+            Bitmap bitmap = bitmapPool.get(width, height, config);
+            if (bitmap == null) {
+                bitmap = Bitmap.createBitmap(width, height, config);
+            }
+            bitmap.setHasAlpha(hasAlpha);
+            bitmap.copyPixelsFromBuffer(buffer);
+            // Keep the recency across processes, the entries are ordered by it on startup.
+            //noinspection ResultOfMethodCallIgnored
+            file.setLastModified(System.currentTimeMillis());
+            return bitmap;
+        } catch (IOException | RuntimeException e) {
+            // Truncated, corrupt or concurrently evicted.
+            index.remove(name);
+            return null;
+        }
+    }
+
+    /**
+     * Store the pixels of {@code bitmap} for {@code key}. Hardware bitmaps and bitmaps larger
+     * than the cache are skipped.
+     */
+    void set(CacheKey key, Bitmap bitmap) {
+        Bitmap.Config config = bitmap.getConfig();
+        if (config == null || bitmap.isRecycled() || (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && config == Bitmap.Config.HARDWARE)) {
+            return;
+        }
+        int configCode = encodeConfig(config);
+        if (configCode == 0) {
+            return;
+        }
+        byte[] keyBytes = key.toString().getBytes(StandardCharsets.UTF_8);
+        long length = HEADER_SIZE + keyBytes.length + (long) bitmap.getByteCount();
+        if (length > index.maxSize()) {
+            return;
+        }
+
+        String name = DiskFileIndex.fileName(key);
+        File temp = index.tempFile(name);
+        try (RandomAccessFile output = new RandomAccessFile(temp, "rw")) {
+            output.setLength(length);
+            MappedByteBuffer buffer = output.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.putInt(MAGIC);
+            buffer.putInt(bitmap.getWidth());
+            buffer.putInt(bitmap.getHeight());
+            buffer.putInt(configCode);
+            buffer.putInt(bitmap.hasAlpha() ? 1 : 0);
+            buffer.putInt(keyBytes.length);
+            buffer.put(keyBytes);
+            bitmap.copyPixelsToBuffer(buffer);
+            buffer.force();
+        } catch (IOException | RuntimeException e) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            return;
+        }
+        index.commit(temp, name);
+    }
+
+    /**
+     * Returns the code stored for {@code config}, or 0 if it has none.
+     */
+    private static int encodeConfig(Bitmap.Config config) {
+        String name = config.name();
+        for (int i = 0; i < CONFIG_NAMES.length; i++) {
+            if (CONFIG_NAMES[i].equals(name)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the config stored as {@code code}, or {@code null} if it is unknown to this version or
+     * to this platform.
+     */
+    private static Bitmap.Config decodeConfig(int code) {
+        if (code < 1 || code > CONFIG_NAMES.length) {
+            return null;
+        }
+        try {
+            return Bitmap.Config.valueOf(CONFIG_NAMES[code - 1]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Remove every entry of the source identified by {@code keyBase}.
+     */
+    void clearKeyUri(String keyBase) {
+        index.removeKeyBase(keyBase);
+    }
+
+    long size() {
+        return index.size();
+    }
+
+    long maxSize() {
+        return index.maxSize();
+    }
+}
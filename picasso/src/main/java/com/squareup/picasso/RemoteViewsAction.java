@@ -33,7 +33,7 @@ abstract class RemoteViewsAction extends Action<RemoteViewsAction.RemoteViewsTar
 
     private RemoteViewsTarget target;
 
-    RemoteViewsAction(Picasso picasso, Request data, RemoteViews remoteViews, int viewId, int errorResId, int memoryPolicy, int networkPolicy, Object tag, String key, Callback callback) {
+    RemoteViewsAction(Picasso picasso, Request data, RemoteViews remoteViews, int viewId, int errorResId, int memoryPolicy, int networkPolicy, Object tag, CacheKey key, Callback callback) {
         super(picasso, null, data, memoryPolicy, networkPolicy, errorResId, null, key, tag, false);
         this.remoteViews = remoteViews;
         this.viewId = viewId;
@@ -108,7 +108,7 @@ abstract class RemoteViewsAction extends Action<RemoteViewsAction.RemoteViewsTar
     static class AppWidgetAction extends RemoteViewsAction {
         private final int[] appWidgetIds;
 
-        AppWidgetAction(Picasso picasso, Request data, RemoteViews remoteViews, int viewId, int[] appWidgetIds, int memoryPolicy, int networkPolicy, String key, Object tag, int errorResId, Callback callback) {
+        AppWidgetAction(Picasso picasso, Request data, RemoteViews remoteViews, int viewId, int[] appWidgetIds, int memoryPolicy, int networkPolicy, CacheKey key, Object tag, int errorResId, Callback callback) {
             super(picasso, data, remoteViews, viewId, errorResId, memoryPolicy, networkPolicy, tag, key, callback);
             this.appWidgetIds = appWidgetIds;
         }
@@ -125,7 +125,7 @@ abstract class RemoteViewsAction extends Action<RemoteViewsAction.RemoteViewsTar
         private final String notificationTag;
         private final Notification notification;
 
-        NotificationAction(Picasso picasso, Request data, RemoteViews remoteViews, int viewId, int notificationId, Notification notification, String notificationTag, int memoryPolicy, int networkPolicy, String key, Object tag, int errorResId, Callback callback) {
+        NotificationAction(Picasso picasso, Request data, RemoteViews remoteViews, int viewId, int notificationId, Notification notification, String notificationTag, int memoryPolicy, int networkPolicy, CacheKey key, Object tag, int errorResId, Callback callback) {
             super(picasso, data, remoteViews, viewId, errorResId, memoryPolicy, networkPolicy, tag, key, callback);
             this.notificationId = notificationId;
             this.notificationTag = notificationTag;
@@ -55,6 +55,16 @@ public final class Request {
      * caching. Two requests with the same value are considered to be for the same resource.
      */
     public final String stableKey;
+    /**
+     * Optional name of the memory cache partition the result should be stored in. Only used by
+     * caches which support partitions, such as {@link PartitionedCache}.
+     */
+    public final String cachePartition;
+    /**
+     * Optional hex-encoded SHA-256 hash of the encoded image, which lets requests for different
+     * URLs share one decoded image when content deduplication is enabled.
+     */
+    public final String contentHash;
     /**
      * List of custom transformations to be applied after the built-in transformations.
      */
@@ -104,6 +114,10 @@ public final class Request {
      * True if image should be decoded with inPurgeable and inInputShareable.
      */
     public final boolean purgeable;
+    /**
+     * True if low-quality previews should be delivered while the image downloads.
+     */
+    public final boolean progressive;
     /**
      * Target image config for decoding.
      */
@@ -125,10 +139,12 @@ public final class Request {
      */
     int networkPolicy;
 
-    private Request(Uri uri, int resourceId, String stableKey, List<Transformation> transformations, int targetWidth, int targetHeight, boolean centerCrop, boolean centerInside, int centerCropGravity, boolean onlyScaleDown, float rotationDegrees, float rotationPivotX, float rotationPivotY, boolean hasRotationPivot, boolean purgeable, Bitmap.Config config, Priority priority) {
+    private Request(Uri uri, int resourceId, String stableKey, String cachePartition, String contentHash, List<Transformation> transformations, int targetWidth, int targetHeight, boolean centerCrop, boolean centerInside, int centerCropGravity, boolean onlyScaleDown, float rotationDegrees, float rotationPivotX, float rotationPivotY, boolean hasRotationPivot, boolean purgeable, boolean progressive, Bitmap.Config config, Priority priority) {
         this.uri = uri;
         this.resourceId = resourceId;
         this.stableKey = stableKey;
+        this.cachePartition = cachePartition;
+        this.contentHash = contentHash;
         if (transformations == null) {
             this.transformations = null;
         } else {
@@ -145,6 +161,7 @@ public final class Request {
         this.rotationPivotY = rotationPivotY;
         this.hasRotationPivot = hasRotationPivot;
         this.purgeable = purgeable;
+        this.progressive = progressive;
         this.config = config;
         this.priority = priority;
     }
@@ -185,6 +202,9 @@ public final class Request {
         if (purgeable) {
             builder.append(" purgeable");
         }
+        if (progressive) {
+            builder.append(" progressive");
+        }
         if (config != null) {
             builder.append(' ').append(config);
         }
@@ -239,6 +259,8 @@ public final class Request {
         private Uri uri;
         private int resourceId;
         private String stableKey;
+        private String cachePartition;
+        private String contentHash;
         private int targetWidth;
         private int targetHeight;
         private boolean centerCrop;
@@ -250,6 +272,7 @@ public final class Request {
         private float rotationPivotY;
         private boolean hasRotationPivot;
         private boolean purgeable;
+        private boolean progressive;
         private List<Transformation> transformations;
         private Bitmap.Config config;
         private Priority priority;
@@ -278,6 +301,8 @@ public final class Request {
             uri = request.uri;
             resourceId = request.resourceId;
             stableKey = request.stableKey;
+            cachePartition = request.cachePartition;
+            contentHash = request.contentHash;
             targetWidth = request.targetWidth;
             targetHeight = request.targetHeight;
             centerCrop = request.centerCrop;
@@ -288,6 +313,7 @@ public final class Request {
             rotationPivotY = request.rotationPivotY;
             hasRotationPivot = request.hasRotationPivot;
             purgeable = request.purgeable;
+            progressive = request.progressive;
             onlyScaleDown = request.onlyScaleDown;
             if (request.transformations != null) {
                 transformations = new ArrayList<>(request.transformations);
@@ -342,6 +368,22 @@ public final class Request {
             return this;
         }
 
+        /**
+         * Set the name of the memory cache partition the result should be stored in.
+         */
+        public Builder cachePartition(@Nullable String cachePartition) {
+            this.cachePartition = cachePartition;
+            return this;
+        }
+
+        /**
+         * Set the hex-encoded SHA-256 hash of the encoded image, if it is known ahead of time.
+         */
+        public Builder contentHash(@Nullable String contentHash) {
+            this.contentHash = contentHash;
+            return this;
+        }
+
         /**
          * Resize the image to the specified size in pixels.
          * Use 0 as desired dimension to resize keeping aspect ratio.
@@ -479,6 +521,14 @@ public final class Request {
             return this;
         }
 
+        /**
+         * Deliver low-quality previews decoded from partially downloaded data.
+         */
+        public Builder progressive() {
+            progressive = true;
+            return this;
+        }
+
         /**
          * Decode the image using the specified config.
          */
@@ -542,7 +592,7 @@ public final class Request {
             if (priority == null) {
                 priority = Priority.NORMAL;
             }
-            return new Request(uri, resourceId, stableKey, transformations, targetWidth, targetHeight, centerCrop, centerInside, centerCropGravity, onlyScaleDown, rotationDegrees, rotationPivotX, rotationPivotY, hasRotationPivot, purgeable, config, priority);
+            return new Request(uri, resourceId, stableKey, cachePartition, contentHash, transformations, targetWidth, targetHeight, centerCrop, centerInside, centerCropGravity, onlyScaleDown, rotationDegrees, rotationPivotX, rotationPivotY, hasRotationPivot, purgeable, progressive, config, priority);
         }
     }
 }
@@ -29,7 +29,6 @@ import static com.squareup.picasso.Utils.VERB_COMPLETED;
 import static com.squareup.picasso.Utils.VERB_CREATED;
 import static com.squareup.picasso.Utils.checkMain;
 import static com.squareup.picasso.Utils.checkNotMain;
-import static com.squareup.picasso.Utils.createKey;
 import static com.squareup.picasso.Utils.log;
 
 import android.app.Notification;
@@ -49,7 +48,6 @@ import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.appcompat.content.res.AppCompatResources;
 
-import com.squareup.picasso.interfaces.Cache;
 import com.squareup.picasso.interfaces.Callback;
 import com.squareup.picasso.interfaces.Target;
 import com.squareup.picasso.interfaces.Transformation;
@@ -63,7 +61,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 @SuppressWarnings("UnusedDeclaration") // Public API.
 public class RequestCreator {
-    private static final AtomicInteger nextId = new AtomicInteger();
+    static final AtomicInteger nextId = new AtomicInteger();
 
     private final Picasso picasso;
     private final Request.Builder data;
@@ -325,6 +323,27 @@ public class RequestCreator {
         return this;
     }
 
+    /**
+     * Store the result in the memory cache partition named {@code cachePartition}. This only has
+     * an effect when the memory cache is a {@link PartitionedCache}, which otherwise uses the
+     * request's {@link #tag(Object) tag} if it names one of its partitions.
+     */
+    public RequestCreator cachePartition(@NonNull String cachePartition) {
+        data.cachePartition(cachePartition);
+        return this;
+    }
+
+    /**
+     * Declare the hex-encoded SHA-256 hash of the encoded image, for example when an API returns
+     * it alongside the URL. With {@linkplain Picasso.Builder#contentDedupeEnabled(boolean) content
+     * deduplication} enabled, an image already decoded for another URL with the same hash and
+     * transformations is reused without loading this URL.
+     */
+    public RequestCreator contentHash(@NonNull String contentHash) {
+        data.contentHash(contentHash);
+        return this;
+    }
+
     /**
      * Set the priority of this request.
      * <p>
@@ -400,6 +419,19 @@ public class RequestCreator {
         return this;
     }
 
+    /**
+     * Show low-quality previews while the image downloads. Partially received data is decoded at a
+     * limited rate, which shows progressive JPEGs at increasing quality and other images top down.
+     * Previews are delivered to the {@link ImageView} or
+     * {@link Target#onPreviewLoaded(android.graphics.Bitmap)} and are never cached.
+     * <p>
+     * Only affects images loaded from the network.
+     */
+    public RequestCreator progressive() {
+        data.progressive();
+        return this;
+    }
+
     /**
      * Disable brief fade in of images loaded from the disk cache or network.
      */
@@ -411,8 +443,8 @@ public class RequestCreator {
     /**
      * Synchronously fulfill this request. Must not be called from the main thread.
      * <p>
-     * <em>Note</em>: The result of this operation is not cached in memory because the underlying
-     * {@link Cache} implementation is not guaranteed to be thread-safe.
+     * The memory cache is read and written directly from the calling thread, honoring the
+     * {@link #memoryPolicy(MemoryPolicy, MemoryPolicy...) memory policy} of this request.
      */
     public Bitmap get() throws IOException {
         long started = System.nanoTime();
@@ -426,10 +458,15 @@ public class RequestCreator {
         }
 
         Request finalData = createRequest(started);
-        String key = createKey(finalData, new StringBuilder());
+        CacheKey key = picasso.createKey(finalData);
 
         Action<Void> action = new GetAction(picasso, finalData, memoryPolicy, networkPolicy, tag, key);
-        return forRequest(picasso, picasso.dispatcher, picasso.cache, picasso.stats, action).hunt();
+        BitmapHunter hunter = forRequest(picasso, picasso.dispatcher, picasso.cache, picasso.stats, action);
+        try {
+            return hunter.hunt();
+        } finally {
+            hunter.unpin();
+        }
     }
 
     /**
@@ -464,7 +501,7 @@ public class RequestCreator {
             }
 
             Request request = createRequest(started);
-            String key = createKey(request, new StringBuilder());
+            CacheKey key = picasso.createKey(request);
 
             if (shouldReadFromMemoryCache(memoryPolicy)) {
                 Bitmap bitmap = picasso.quickMemoryCacheCheck(key);
@@ -544,13 +581,14 @@ public class RequestCreator {
         }
 
         Request request = createRequest(started);
-        String requestKey = createKey(request);
+        CacheKey requestKey = picasso.createKey(request);
 
         if (shouldReadFromMemoryCache(memoryPolicy)) {
             Bitmap bitmap = picasso.quickMemoryCacheCheck(requestKey);
             if (bitmap != null) {
                 picasso.cancelRequest(target);
                 target.onBitmapLoaded(bitmap, MEMORY);
+                picasso.activate(target, requestKey, bitmap);
                 return;
             }
         }
@@ -592,7 +630,7 @@ public class RequestCreator {
         }
 
         Request request = createRequest(started);
-        String key = createKey(request, new StringBuilder()); // Non-main thread needs own builder.
+        CacheKey key = picasso.createKey(request);
 
         RemoteViewsAction action = new NotificationAction(picasso, request, remoteViews, viewId, notificationId, notification, notificationTag, memoryPolicy, networkPolicy, key, tag, errorResId, callback);
 
@@ -622,7 +660,7 @@ public class RequestCreator {
         }
 
         Request request = createRequest(started);
-        String key = createKey(request, new StringBuilder()); // Non-main thread needs own builder.
+        CacheKey key = picasso.createKey(request);
 
         RemoteViewsAction action = new AppWidgetAction(picasso, request, remoteViews, viewId, appWidgetIds, memoryPolicy, networkPolicy, key, tag, errorResId, callback);
 
@@ -681,13 +719,14 @@ public class RequestCreator {
         }
 
         Request request = createRequest(started);
-        String requestKey = createKey(request);
+        CacheKey requestKey = picasso.createKey(request);
 
         if (shouldReadFromMemoryCache(memoryPolicy)) {
             Bitmap bitmap = picasso.quickMemoryCacheCheck(requestKey);
             if (bitmap != null) {
                 picasso.cancelRequest(target);
                 setBitmap(target, picasso.context, bitmap, MEMORY, noFade, picasso.indicatorsEnabled);
+                picasso.activate(target, requestKey, bitmap);
                 if (picasso.loggingEnabled) {
                     log(OWNER_MAIN, VERB_COMPLETED, request.plainId(), "from " + MEMORY);
                 }
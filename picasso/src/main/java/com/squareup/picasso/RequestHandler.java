@@ -19,10 +19,13 @@ import static com.squareup.picasso.Utils.checkNotNull;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.os.Build;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.squareup.picasso.interfaces.BitmapPool;
+
 import java.io.IOException;
 
 import okio.Source;
@@ -50,13 +53,24 @@ public abstract class RequestHandler {
      * {@link Request}, only instantiating them if needed.
      */
     static BitmapFactory.Options createBitmapOptions(Request data) {
-        final boolean justBounds = data.hasSize();
+        return createBitmapOptions(data, BitmapPool.NONE);
+    }
+
+    /**
+     * Lazily create {@link BitmapFactory.Options} based in given {@link Request}. When bitmaps
+     * can be taken from {@code pool} the options always decode bounds first so that a matching
+     * {@link BitmapFactory.Options#inBitmap inBitmap} can be chosen.
+     */
+    static BitmapFactory.Options createBitmapOptions(Request data, BitmapPool pool) {
+        final boolean reuseBitmap = canReuseBitmap(data, pool);
+        final boolean justBounds = data.hasSize() || reuseBitmap;
         final boolean hasConfig = data.config != null;
         BitmapFactory.Options options = null;
 
         if (justBounds || hasConfig) {
             options = new BitmapFactory.Options();
             options.inJustDecodeBounds = justBounds;
+            options.inMutable = reuseBitmap;
             if (hasConfig) {
                 options.inPreferredConfig = data.config;
             }
@@ -65,6 +79,12 @@ public abstract class RequestHandler {
         return options;
     }
 
+    private static boolean canReuseBitmap(Request data, BitmapPool pool) {
+        if (pool == BitmapPool.NONE || data.purgeable) {
+            return false;
+        }
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.O || data.config != Bitmap.Config.HARDWARE;
+    }
 
     static boolean requiresInSampleSize(BitmapFactory.Options options) {
         return options != null && options.inJustDecodeBounds;
@@ -93,6 +113,34 @@ public abstract class RequestHandler {
         options.inJustDecodeBounds = false;
     }
 
+    /**
+     * Finish options which were used to decode bounds: calculate {@code inSampleSize} if the
+     * request has a target size and pick an {@code inBitmap} from {@code pool} if reuse is allowed.
+     */
+    static void calculateDecodeOptions(Request request, BitmapFactory.Options options, BitmapPool pool, Stats stats) {
+        if (request.hasSize()) {
+            calculateInSampleSize(request.targetWidth, request.targetHeight, options, request);
+        } else {
+            options.inSampleSize = 1;
+            options.inJustDecodeBounds = false;
+        }
+
+        if (!options.inMutable || options.outWidth <= 0 || options.outHeight <= 0) {
+            return;
+        }
+        // Decoders may round the sample size down to a power of two, size for the larger result.
+        int sampleSize = Integer.highestOneBit(Math.max(1, options.inSampleSize));
+        int width = (options.outWidth + sampleSize - 1) / sampleSize;
+        int height = (options.outHeight + sampleSize - 1) / sampleSize;
+        Bitmap.Config config = options.inPreferredConfig != null ? options.inPreferredConfig : Bitmap.Config.ARGB_8888;
+        options.inBitmap = pool.get(width, height, config);
+        if (options.inBitmap != null) {
+            stats.dispatchPoolHit();
+        } else {
+            stats.dispatchPoolMiss();
+        }
+    }
+
     /**
      * Whether or not this {@link RequestHandler} can handle a request with the given {@link Request}.
      */
@@ -107,6 +155,18 @@ public abstract class RequestHandler {
     @Nullable
     public abstract Result load(Request request, int networkPolicy) throws IOException;
 
+    /**
+     * Returns a value which changes whenever the source of {@code request} changes, such as its
+     * last-modified time, or {@code null} if there is none. Only results of requests with a version
+     * are stored in the {@link Picasso.Builder#resultDiskCache result disk cache}.
+     * <p>
+     * The default implementation returns {@code null}.
+     */
+    @Nullable
+    public String getSourceVersion(@NonNull Request request) {
+        return null;
+    }
+
     int getRetryCount() {
         return 0;
     }
@@ -131,6 +191,7 @@ public abstract class RequestHandler {
         private final Bitmap bitmap;
         private final Source source;
         private final int exifOrientation;
+        private final boolean stale;
 
         public Result(@NonNull Bitmap bitmap, @NonNull Picasso.LoadedFrom loadedFrom) {
             this(checkNotNull(bitmap, "bitmap == null"), null, loadedFrom, 0);
@@ -141,6 +202,10 @@ public abstract class RequestHandler {
         }
 
         Result(@Nullable Bitmap bitmap, @Nullable Source source, @NonNull Picasso.LoadedFrom loadedFrom, int exifOrientation) {
+            this(bitmap, source, loadedFrom, exifOrientation, false);
+        }
+
+        Result(@Nullable Bitmap bitmap, @Nullable Source source, @NonNull Picasso.LoadedFrom loadedFrom, int exifOrientation, boolean stale) {
             if ((bitmap != null) == (source != null)) {
                 throw new AssertionError();
             }
@@ -148,6 +213,7 @@ public abstract class RequestHandler {
             this.source = source;
             this.loadedFrom = checkNotNull(loadedFrom, "loadedFrom == null");
             this.exifOrientation = exifOrientation;
+            this.stale = stale;
         }
 
         /**
@@ -182,5 +248,13 @@ public abstract class RequestHandler {
         int getExifOrientation() {
             return exifOrientation;
         }
+
+        /**
+         * Returns whether this is a stale copy which should be revalidated in the background. This
+         * is only accessible to built-in RequestHandlers.
+         */
+        boolean isStale() {
+            return stale;
+        }
     }
 }
@@ -23,22 +23,40 @@ import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 
+import androidx.annotation.NonNull;
+
+import com.squareup.picasso.interfaces.BitmapPool;
+
 import java.io.IOException;
 
 class ResourceRequestHandler extends RequestHandler {
     private final Context context;
+    private final BitmapPool bitmapPool;
+    private final Stats stats;
 
-    ResourceRequestHandler(Context context) {
+    ResourceRequestHandler(Context context, BitmapPool bitmapPool, Stats stats) {
         this.context = context;
+        this.bitmapPool = bitmapPool;
+        this.stats = stats;
     }
 
-    private static Bitmap decodeResource(Resources resources, int id, Request data) {
-        final BitmapFactory.Options options = createBitmapOptions(data);
+    private Bitmap decodeResource(Resources resources, int id, Request data) {
+        final BitmapFactory.Options options = createBitmapOptions(data, bitmapPool);
         if (requiresInSampleSize(options)) {
             BitmapFactory.decodeResource(resources, id, options);
-            calculateInSampleSize(data.targetWidth, data.targetHeight, options, data);
+            calculateDecodeOptions(data, options, bitmapPool, stats);
+        }
+        try {
+            return BitmapFactory.decodeResource(resources, id, options);
+        } catch (IllegalArgumentException e) {
+            if (options == null || options.inBitmap == null) {
+                throw e;
+            }
+            // The pooled bitmap could not hold the result, decode into a fresh allocation instead.
+            bitmapPool.put(options.inBitmap);
+            options.inBitmap = null;
+            return BitmapFactory.decodeResource(resources, id, options);
         }
-        return BitmapFactory.decodeResource(resources, id, options);
     }
 
     @Override
@@ -50,6 +68,12 @@ class ResourceRequestHandler extends RequestHandler {
         return SCHEME_ANDROID_RESOURCE.equals(data.uri.getScheme());
     }
 
+    @Override
+    public String getSourceVersion(@NonNull Request request) {
+        String packageName = request.resourceId != 0 || request.uri == null ? context.getPackageName() : request.uri.getAuthority();
+        return packageName != null ? Utils.getPackageVersion(context, packageName) : null;
+    }
+
     @Override
     public Result load(Request request, int networkPolicy) throws IOException {
         Resources res = Utils.getResources(context, request);
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import androidx.annotation.NonNull;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Images bundled with the app which answer network requests for their URL without network I/O,
+ * so that the first launch does not need to download them. Seeded images are reported as
+ * {@link Picasso.LoadedFrom#DISK}. A request which must not read from the disk cache, such as one
+ * using {@link NetworkPolicy#NO_CACHE}, bypasses the seeds.
+ * <p>
+ * Images are either individual assets, or entries of one blob asset which starts with an index:
+ * the magic number {@code 0x50534544} ("PSED") and the entry count as big-endian ints, followed by
+ * each entry's URL as a big-endian int length and UTF-8 bytes, and its big-endian long offset from
+ * the start of the blob and int length. Assets which are stored uncompressed in the APK are
+ * memory-mapped.
+ * <p>
+ * A seeded URL is expected to always serve the same image.
+ *
+ * @see Picasso.Builder#seedPack(SeedPack)
+ */
+public final class SeedPack {
+    private static final int BLOB_MAGIC = 0x50534544; // "PSED"
+
+    private final AssetManager assets;
+    private final Map<String, String> files;
+    private final String blobPath; // Null when there is no blob.
+    private Map<String, long[]> blobIndex; // Offset and length of each entry, read lazily.
+    private ByteBuffer blob; // Null when the blob is compressed.
+
+    SeedPack(Builder builder) {
+        this.assets = builder.context.getAssets();
+        this.files = new HashMap<>(builder.files);
+        this.blobPath = builder.blobPath;
+    }
+
+    /**
+     * Returns the seeded image for {@code url} or {@code null}.
+     */
+    Source open(String url) throws IOException {
+        String path = files.get(url);
+        if (path != null) {
+            return openAsset(path);
+        }
+        if (blobPath == null) {
+            return null;
+        }
+
+        long[] range;
+        ByteBuffer blob;
+        synchronized (this) {
+            loadBlob();
+            range = blobIndex.get(url);
+            blob = this.blob;
+        }
+        if (range == null) {
+            return null;
+        }
+        if (blob != null) {
+            ByteBuffer entry = blob.duplicate();
+            entry.limit((int) (range[0] + range[1]));
+            entry.position((int) range[0]);
+            Buffer buffer = new Buffer();
+            buffer.write(entry);
+            return buffer;
+        }
+        // Compressed in the APK, stream up to the entry.
+        try (BufferedSource source = Okio.buffer(Okio.source(assets.open(blobPath)))) {
+            source.skip(range[0]);
+            Buffer buffer = new Buffer();
+            source.readFully(buffer, range[1]);
+            return buffer;
+        }
+    }
+
+    private Source openAsset(String path) throws IOException {
+        ByteBuffer mapped = map(path);
+        if (mapped == null) {
+            return Okio.source(assets.open(path));
+        }
+        Buffer buffer = new Buffer();
+        buffer.write(mapped);
+        return buffer;
+    }
+
+    /**
+     * Memory-map the asset at {@code path}, or return {@code null} if it is compressed.
+     */
+    private MappedByteBuffer map(String path) throws IOException {
+        AssetFileDescriptor fd;
+        try {
+            fd = assets.openFd(path);
+        } catch (FileNotFoundException e) {
+            // Compressed assets have no file descriptor.
+            return null;
+        }
+        try (fd; FileInputStream input = new FileInputStream(fd.getFileDescriptor())) {
+            // The mapping stays valid once the descriptor is closed.
+            return input.getChannel().map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getLength());
+        }
+    }
+
+    private void loadBlob() throws IOException {
+        if (blobIndex != null) {
+            return;
+        }
+        Map<String, long[]> index = new HashMap<>();
+        try (BufferedSource source = Okio.buffer(Okio.source(assets.open(blobPath)))) {
+            if (source.readInt() != BLOB_MAGIC) {
+                throw new IOException("Not a seed pack blob: " + blobPath);
+            }
+            for (int i = 0, n = source.readInt(); i < n; i++) {
+                String url = source.readUtf8(source.readInt());
+                long offset = source.readLong();
+                long length = source.readInt();
+                index.put(url, new long[]{offset, length});
+            }
+        }
+        blob = map(blobPath);
+        blobIndex = index;
+    }
+
+    public static final class Builder {
+        private final Context context;
+        private final Map<String, String> files = new HashMap<>();
+        private String blobPath;
+
+        /**
+         * Start building a seed pack from the assets of {@code context}.
+         */
+        public Builder(@NonNull Context context) {
+            this.context = context.getApplicationContext();
+        }
+
+        /**
+         * Answer requests for {@code url} with the asset at {@code assetPath}.
+         */
+        public Builder add(@NonNull String url, @NonNull String assetPath) {
+            if (files.containsKey(url)) {
+                throw new IllegalStateException("Seed for '" + url + "' already set.");
+            }
+            files.put(url, assetPath);
+            return this;
+        }
+
+        /**
+         * Answer requests for the URLs indexed by the blob asset at {@code assetPath}. Entries
+         * {@link #add added} individually take precedence.
+         */
+        public Builder blob(@NonNull String assetPath) {
+            if (this.blobPath != null) {
+                throw new IllegalStateException("Blob already set.");
+            }
+            this.blobPath = assetPath;
+            return this;
+        }
+
+        /**
+         * Create the {@link SeedPack} instance.
+         */
+        @NonNull
+        public SeedPack build() {
+            return new SeedPack(this);
+        }
+    }
+}
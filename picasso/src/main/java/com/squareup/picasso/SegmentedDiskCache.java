@@ -0,0 +1,448 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.squareup.picasso.interfaces.DiskCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * A {@link DiskCache} for many small images which appends entries to a few large segment files
+ * instead of writing a file per entry.
+ * <p>
+ * An in-memory index maps every key to the position of its entry, which is read with a positional
+ * {@link FileChannel} read. Writes are appended to the newest segment without syncing. Replaced and
+ * removed entries leave garbage behind, which is reclaimed in the background by compacting the
+ * oldest segment: entries which were read since it was last compacted are copied to the newest
+ * segment and the rest are dropped once the cache is over its maximum size. Removals are logged as
+ * tombstones so they survive a restart.
+ * <p>
+ * The index is rebuilt by scanning the segments on first use, which must not happen on the main
+ * thread.
+ */
+public final class SegmentedDiskCache implements DiskCache {
+    private static final int RECORD_MAGIC = 0x53454731; // "SEG1"
+    private static final int RECORD_HEADER_SIZE = 16; // Magic, key, version and data lengths.
+    private static final int TOMBSTONE = -1;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final long MAX_SEGMENT_SIZE = 4 * 1024 * 1024; // 4MB
+
+    private final File directory;
+    private final long maxSize;
+    private final long segmentSize;
+    private final ExecutorService compactor;
+    private final Map<String, Entry> index = new HashMap<>();
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private long size;
+    private int nextSegmentId;
+    private boolean initialized;
+    private boolean compactionScheduled;
+
+    /**
+     * Create a cache in {@code directory} which holds at most {@code maxByteCount} bytes. The
+     * directory must not be used for anything else.
+     */
+    public SegmentedDiskCache(@NonNull File directory, long maxByteCount) {
+        if (maxByteCount <= 0) {
+            throw new IllegalArgumentException("Max byte count must be positive.");
+        }
+        this.directory = Utils.checkNotNull(directory, "directory == null");
+        this.maxSize = maxByteCount;
+        // Small enough that compacting one segment frees a useful share of the cache.
+        this.segmentSize = Math.max(64 * 1024, Math.min(MAX_SEGMENT_SIZE, maxByteCount / 8));
+        this.compactor = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new Utils.PicassoThreadFactory());
+    }
+
+    private void initialize() throws IOException {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+        //noinspection ResultOfMethodCallIgnored
+        directory.mkdirs();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX));
+        if (files != null) {
+            int[] ids = new int[files.length];
+            int count = 0;
+            for (File file : files) {
+                try {
+                    ids[count++] = Integer.parseInt(file.getName().substring(SEGMENT_PREFIX.length()));
+                } catch (NumberFormatException e) {
+                    count--;
+                }
+            }
+            ids = Arrays.copyOf(ids, count);
+            Arrays.sort(ids);
+            for (int id : ids) {
+                Segment segment = openSegment(id);
+                scan(segment);
+                size += segment.size;
+                nextSegmentId = id + 1;
+            }
+        }
+        if (segments.isEmpty()) {
+            openSegment(nextSegmentId++);
+        }
+        scheduleCompactionIfNeeded();
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        File file = new File(directory, SEGMENT_PREFIX + id);
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        Segment segment = new Segment(id, file, channel);
+        segment.size = channel.size();
+        segments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * Rebuild the index entries of {@code segment}, truncating a partially written tail.
+     */
+    private void scan(Segment segment) throws IOException {
+        long offset = 0;
+        try (BufferedSource source = Okio.buffer(Okio.source(segment.file))) {
+            while (!source.exhausted()) {
+                if (source.readInt() != RECORD_MAGIC) {
+                    break;
+                }
+                int keyLength = source.readInt();
+                int versionLength = source.readInt();
+                int dataLength = source.readInt();
+                String key = source.readUtf8(keyLength);
+                long recordLength = RECORD_HEADER_SIZE + keyLength;
+                if (versionLength == TOMBSTONE) {
+                    drop(index.remove(key));
+                } else {
+                    String version = source.readUtf8(versionLength);
+                    source.skip(dataLength);
+                    recordLength += versionLength + dataLength;
+                    Entry entry = new Entry(key, version, segment, offset, recordLength, offset + recordLength - dataLength, dataLength);
+                    drop(index.put(key, entry));
+                    segment.liveSize += recordLength;
+                }
+                offset += recordLength;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Torn write at the end of the segment, everything before it is intact.
+        }
+        if (offset < segment.size) {
+            segment.channel.truncate(offset);
+            segment.size = offset;
+        }
+    }
+
+    private static void drop(Entry entry) {
+        if (entry != null) {
+            entry.segment.liveSize -= entry.recordLength;
+        }
+    }
+
+    @Nullable
+    @Override
+    public Source get(@NonNull CacheKey key, @NonNull String version) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            initialize();
+            entry = index.get(key.toString());
+            if (entry == null) {
+                return null;
+            }
+            if (!entry.version.equals(version)) {
+                // The source changed since this was stored, it will never be valid again.
+                remove(entry.key);
+                return null;
+            }
+            entry.accessed = true;
+        }
+
+        ByteBuffer data = ByteBuffer.allocate(entry.dataLength);
+        long position = entry.dataOffset;
+        while (data.hasRemaining()) {
+            // The segment may be compacted and closed concurrently, treat that as a miss.
+            int read;
+            try {
+                read = entry.segment.channel.read(data, position);
+            } catch (IOException e) {
+                return null;
+            }
+            if (read == -1) {
+                return null;
+            }
+            position += read;
+        }
+        return new Buffer().write(data.array());
+    }
+
+    @Override
+    public void set(@NonNull CacheKey key, @NonNull String version, @NonNull ByteString data) throws IOException {
+        if (data.size() > maxSize / 2) {
+            return;
+        }
+        synchronized (this) {
+            initialize();
+            append(key.toString(), version, data, false);
+            scheduleCompactionIfNeeded();
+        }
+    }
+
+    /**
+     * Append a record to the newest segment and point the index at it.
+     */
+    private void append(String key, String version, ByteString data, boolean accessed) throws IOException {
+        Segment segment = segments.getLast();
+        if (segment.size >= segmentSize) {
+            segment = openSegment(nextSegmentId++);
+        }
+        ByteString keyBytes = ByteString.encodeUtf8(key);
+        Buffer record = new Buffer();
+        record.writeInt(RECORD_MAGIC);
+        record.writeInt(keyBytes.size());
+        if (data == null) {
+            record.writeInt(TOMBSTONE);
+            record.writeInt(0);
+            record.write(keyBytes);
+        } else {
+            ByteString versionBytes = ByteString.encodeUtf8(version);
+            record.writeInt(versionBytes.size());
+            record.writeInt(data.size());
+            record.write(keyBytes);
+            record.write(versionBytes);
+            record.write(data);
+        }
+
+        long offset = segment.size;
+        long recordLength = record.size();
+        ByteBuffer buffer = ByteBuffer.wrap(record.readByteArray());
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            position += segment.channel.write(buffer, position);
+        }
+        segment.size += recordLength;
+        size += recordLength;
+
+        if (data == null) {
+            drop(index.remove(key));
+        } else {
+            Entry entry = new Entry(key, version, segment, offset, recordLength, offset + recordLength - data.size(), data.size());
+            entry.accessed = accessed;
+            drop(index.put(key, entry));
+            segment.liveSize += recordLength;
+        }
+    }
+
+    private void remove(String key) {
+        if (!index.containsKey(key)) {
+            return;
+        }
+        try {
+            append(key, null, null, false);
+        } catch (IOException e) {
+            // Without a tombstone the entry would come back after a restart, forget it for now.
+            drop(index.remove(key));
+        }
+    }
+
+    private void scheduleCompactionIfNeeded() {
+        if (compactionScheduled || segments.size() < 2) {
+            return;
+        }
+        Segment oldest = segments.getFirst();
+        if (size > maxSize || oldest.liveSize < oldest.size / 2) {
+            compactionScheduled = true;
+            compactor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Compact the oldest segments until the cache fits and the oldest segment is mostly live.
+     */
+    void compact() {
+        while (true) {
+            Segment oldest;
+            List<Entry> live = new ArrayList<>();
+            boolean overBudget;
+            synchronized (this) {
+                if (segments.size() < 2) {
+                    compactionScheduled = false;
+                    return;
+                }
+                oldest = segments.getFirst();
+                overBudget = size > maxSize;
+                if (!overBudget && oldest.liveSize >= oldest.size / 2) {
+                    compactionScheduled = false;
+                    return;
+                }
+                for (Entry entry : index.values()) {
+                    if (entry.segment == oldest && (entry.accessed || !overBudget)) {
+                        live.add(entry);
+                    }
+                }
+            }
+
+            // Read outside of the lock, the oldest segment is never written to.
+            List<ByteString> data = new ArrayList<>(live.size());
+            for (int i = 0, n = live.size(); i < n; i++) {
+                Entry entry = live.get(i);
+                ByteBuffer buffer = ByteBuffer.allocate(entry.dataLength);
+                try {
+                    while (buffer.hasRemaining()) {
+                        if (oldest.channel.read(buffer, entry.dataOffset + buffer.position()) == -1) {
+                            break;
+                        }
+                    }
+                } catch (IOException e) {
+                    buffer.position(0);
+                }
+                data.add(buffer.hasRemaining() ? null : ByteString.of(buffer.array()));
+            }
+
+            synchronized (this) {
+                if (segments.peekFirst() != oldest) {
+                    // Cleared concurrently.
+                    continue;
+                }
+                try {
+                    for (int i = 0, n = live.size(); i < n; i++) {
+                        Entry entry = live.get(i);
+                        // Skip entries which were replaced or removed while copying.
+                        if (data.get(i) != null && index.get(entry.key) == entry) {
+                            append(entry.key, entry.version, data.get(i), false);
+                        }
+                    }
+                } catch (IOException e) {
+                    compactionScheduled = false;
+                    return;
+                }
+                for (Iterator<Entry> i = index.values().iterator(); i.hasNext(); ) {
+                    if (i.next().segment == oldest) {
+                        i.remove();
+                    }
+                }
+                segments.removeFirst();
+                size -= oldest.size;
+                closeAndDelete(oldest);
+            }
+        }
+    }
+
+    private static void closeAndDelete(Segment segment) {
+        try {
+            segment.channel.close();
+        } catch (IOException ignored) {
+        }
+        //noinspection ResultOfMethodCallIgnored
+        segment.file.delete();
+    }
+
+    @Override
+    public synchronized long size() {
+        return size;
+    }
+
+    @Override
+    public long maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (Segment segment : segments) {
+            closeAndDelete(segment);
+        }
+        segments.clear();
+        index.clear();
+        size = 0;
+        initialized = false;
+    }
+
+    @Override
+    public synchronized void clearKeyUri(@NonNull String keyBase) {
+        try {
+            initialize();
+        } catch (IOException e) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        for (String key : index.keySet()) {
+            if (Utils.getKeyBase(key).equals(keyBase)) {
+                keys.add(key);
+            }
+        }
+        for (int i = 0, n = keys.size(); i < n; i++) {
+            remove(keys.get(i));
+        }
+        scheduleCompactionIfNeeded();
+    }
+
+    static final class Segment {
+        final int id;
+        final File file;
+        final FileChannel channel;
+        long size;
+        long liveSize;
+
+        Segment(int id, File file, FileChannel channel) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+        }
+    }
+
+    static final class Entry {
+        final String key;
+        final String version;
+        final Segment segment;
+        final long offset;
+        final long recordLength;
+        final long dataOffset;
+        final int dataLength;
+        boolean accessed;
+
+        Entry(String key, String version, Segment segment, long offset, long recordLength, long dataOffset, int dataLength) {
+            this.key = key;
+            this.version = version;
+            this.segment = segment;
+            this.offset = offset;
+            this.recordLength = recordLength;
+            this.dataOffset = dataOffset;
+            this.dataLength = dataLength;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.Call;
+import okio.Buffer;
+import okio.ByteString;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Coalesces network fetches of the same source. Hunters are keyed by the full request, so the
+ * same image at two sizes is hunted twice; here the second hunter joins the first one's download
+ * instead of starting its own, and each hunter decodes its own copy of the buffered bytes. Only
+ * hunters with the same network policy share a fetch, since the policy decides where the body may
+ * come from.
+ * <p>
+ * A hunter which finds a fetch in progress only {@linkplain #follow follows} it once its own run
+ * is over, so the fetch can never resubmit a hunter which is still running.
+ * <p>
+ * A download is only cancelled once every hunter waiting for it has been cancelled.
+ */
+final class SourceFetches {
+    private final Map<String, Fetch> fetches = new HashMap<>();
+
+    /**
+     * Join the fetch of {@code source} with {@code networkPolicy}. If no other hunter is fetching
+     * it, {@code hunter} becomes the {@linkplain Fetch#leader leader} and must
+     * {@linkplain #complete complete} the fetch. Otherwise it has to {@link #follow} the returned
+     * fetch to receive its result.
+     */
+    synchronized Fetch join(String source, int networkPolicy, BitmapHunter hunter) {
+        String key = source + Utils.KEY_SEPARATOR + networkPolicy;
+        Fetch fetch = fetches.get(key);
+        if (fetch == null) {
+            fetch = new Fetch(key, hunter);
+            fetches.put(key, fetch);
+            fetch.hunters.add(hunter);
+        }
+        return fetch;
+    }
+
+    /**
+     * Wait for {@code fetch} to hand its result to {@code hunter}. Returns {@code false} if it
+     * already completed or was abandoned, in which case the hunter has to fetch on its own.
+     */
+    synchronized boolean follow(Fetch fetch, BitmapHunter hunter) {
+        if (fetch.done || fetches.get(fetch.source) != fetch) {
+            return false;
+        }
+        fetch.hunters.add(hunter);
+        return true;
+    }
+
+    /**
+     * Remember the call downloading for {@code fetch}. Returns {@code false} if every hunter
+     * already left, in which case the call should not be started.
+     */
+    synchronized boolean attach(Fetch fetch, Call call) {
+        if (fetch.hunters.isEmpty()) {
+            return false;
+        }
+        fetch.call = call;
+        return true;
+    }
+
+    /**
+     * Remove a cancelled {@code hunter} from {@code fetch}, cancelling the download if it was the
+     * last one waiting for it.
+     */
+    void leave(Fetch fetch, BitmapHunter hunter) {
+        Call call;
+        synchronized (this) {
+            if (!fetch.hunters.remove(hunter) || !fetch.hunters.isEmpty()) {
+                return;
+            }
+            remove(fetch);
+            call = fetch.call;
+        }
+        if (call != null) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * Hand the outcome of {@code fetch} to every hunter which joined it. The body is buffered once
+     * and each hunter gets its own copy. The copy for {@code caller}, which continues on its own
+     * thread, is returned instead of being handed over.
+     */
+    RequestHandler.Result complete(Fetch fetch, RequestHandler.Result result, IOException failure, BitmapHunter caller) {
+        ByteString bytes = null;
+        if (result != null && result.getSource() != null) {
+            try (Source source = result.getSource()) {
+                bytes = Okio.buffer(source).readByteString();
+            } catch (IOException e) {
+                result = null;
+                failure = e;
+            }
+        }
+
+        List<BitmapHunter> hunters;
+        synchronized (this) {
+            if (fetch.done) {
+                return null;
+            }
+            fetch.done = true;
+            remove(fetch);
+            hunters = new ArrayList<>(fetch.hunters);
+        }
+
+        RequestHandler.Result callerResult = null;
+        for (int i = 0, n = hunters.size(); i < n; i++) {
+            BitmapHunter hunter = hunters.get(i);
+            RequestHandler.Result copy = copy(result, bytes);
+            if (hunter == caller) {
+                callerResult = copy;
+            } else {
+                hunter.onFetched(copy, failure);
+            }
+        }
+        if (callerResult == null && caller != null) {
+            // The caller was cancelled meanwhile but still needs something to continue with.
+            callerResult = copy(result, bytes);
+        }
+        return callerResult;
+    }
+
+    private void remove(Fetch fetch) {
+        if (fetches.get(fetch.source) == fetch) {
+            fetches.remove(fetch.source);
+        }
+    }
+
+    private static RequestHandler.Result copy(RequestHandler.Result result, ByteString bytes) {
+        if (result == null || bytes == null) {
+            return result;
+        }
+        return new RequestHandler.Result(null, new Buffer().write(bytes), result.getLoadedFrom(), result.getExifOrientation(), result.isStale());
+    }
+
+    static final class Fetch {
+        final String source;
+        final BitmapHunter leader;
+        final List<BitmapHunter> hunters = new ArrayList<>(2);
+        Call call;
+        boolean done;
+
+        Fetch(String source, BitmapHunter leader) {
+            this.source = source;
+            this.leader = leader;
+        }
+    }
+}
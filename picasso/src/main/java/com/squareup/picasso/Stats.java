@@ -23,23 +23,43 @@ import android.os.HandlerThread;
 import android.os.Looper;
 import android.os.Message;
 
+import com.squareup.picasso.interfaces.BitmapPool;
 import com.squareup.picasso.interfaces.Cache;
 
+import java.util.Collections;
+import java.util.List;
+
 class Stats {
     private static final int CACHE_HIT = 0;
     private static final int CACHE_MISS = 1;
     private static final int BITMAP_DECODE_FINISHED = 2;
     private static final int BITMAP_TRANSFORMED_FINISHED = 3;
     private static final int DOWNLOAD_FINISHED = 4;
+    private static final int POOL_HIT = 5;
+    private static final int POOL_MISS = 6;
+    private static final int ACTIVE_HIT = 7;
+    private static final int DISK_WRITE_QUEUED = 8;
+    private static final int DISK_WRITE_FINISHED = 9;
+    private static final int DISK_WRITE_DROPPED = 10;
+    private static final int DISK_HIT = 11;
+    private static final int DISK_MISS = 12;
+    private static final int THUMBNAIL_HIT = 13;
 
     private static final String STATS_THREAD_NAME = Utils.THREAD_PREFIX + "Stats";
 
     final HandlerThread statsThread;
     final Cache cache;
+    final BitmapPool bitmapPool;
     final Handler handler;
 
     long cacheHits;
     long cacheMisses;
+    long activeHits;
+    long diskHits;
+    long diskMisses;
+    long thumbnailHits;
+    long poolHits;
+    long poolMisses;
     long totalDownloadSize;
     long totalOriginalBitmapSize;
     long totalTransformedBitmapSize;
@@ -49,9 +69,19 @@ class Stats {
     int downloadCount;
     int originalBitmapCount;
     int transformedBitmapCount;
+    int diskWriteQueueDepth;
+    long diskWriteCount;
+    long diskWritesDropped;
+    long totalDiskWriteTime;
+    long averageDiskWriteTime;
 
     Stats(Cache cache) {
+        this(cache, BitmapPool.NONE);
+    }
+
+    Stats(Cache cache, BitmapPool bitmapPool) {
         this.cache = cache;
+        this.bitmapPool = bitmapPool;
         this.statsThread = new HandlerThread(STATS_THREAD_NAME, THREAD_PRIORITY_BACKGROUND);
         this.statsThread.start();
         Utils.flushStackLocalLeaks(statsThread.getLooper());
@@ -82,6 +112,45 @@ class Stats {
         handler.sendEmptyMessage(CACHE_MISS);
     }
 
+    void dispatchActiveHit() {
+        handler.sendEmptyMessage(ACTIVE_HIT);
+    }
+
+    void dispatchDiskHit() {
+        handler.sendEmptyMessage(DISK_HIT);
+    }
+
+    void dispatchDiskMiss() {
+        handler.sendEmptyMessage(DISK_MISS);
+    }
+
+    void dispatchThumbnailHit() {
+        handler.sendEmptyMessage(THUMBNAIL_HIT);
+    }
+
+    void dispatchPoolHit() {
+        handler.sendEmptyMessage(POOL_HIT);
+    }
+
+    void dispatchPoolMiss() {
+        handler.sendEmptyMessage(POOL_MISS);
+    }
+
+    void dispatchDiskWriteQueued() {
+        handler.sendEmptyMessage(DISK_WRITE_QUEUED);
+    }
+
+    void dispatchDiskWriteFinished(long millis) {
+        handler.sendMessage(handler.obtainMessage(DISK_WRITE_FINISHED, millis));
+    }
+
+    /**
+     * Record a dropped disk write. {@code queued} is whether it was dropped after being queued.
+     */
+    void dispatchDiskWriteDropped(boolean queued) {
+        handler.sendMessage(handler.obtainMessage(DISK_WRITE_DROPPED, queued ? 1 : 0, 0));
+    }
+
     void shutdown() {
         statsThread.quit();
     }
@@ -94,6 +163,48 @@ class Stats {
         cacheMisses++;
     }
 
+    void performActiveHit() {
+        activeHits++;
+    }
+
+    void performDiskHit() {
+        diskHits++;
+    }
+
+    void performDiskMiss() {
+        diskMisses++;
+    }
+
+    void performThumbnailHit() {
+        thumbnailHits++;
+    }
+
+    void performPoolHit() {
+        poolHits++;
+    }
+
+    void performPoolMiss() {
+        poolMisses++;
+    }
+
+    void performDiskWriteQueued() {
+        diskWriteQueueDepth++;
+    }
+
+    void performDiskWriteFinished(Long millis) {
+        diskWriteQueueDepth--;
+        diskWriteCount++;
+        totalDiskWriteTime += millis;
+        averageDiskWriteTime = totalDiskWriteTime / diskWriteCount;
+    }
+
+    void performDiskWriteDropped(boolean queued) {
+        if (queued) {
+            diskWriteQueueDepth--;
+        }
+        diskWritesDropped++;
+    }
+
     void performDownloadFinished(Long size) {
         downloadCount++;
         totalDownloadSize += size;
@@ -113,7 +224,8 @@ class Stats {
     }
 
     StatsSnapshot createSnapshot() {
-        return new StatsSnapshot(cache.maxSize(), cache.size(), cacheHits, cacheMisses, totalDownloadSize, totalOriginalBitmapSize, totalTransformedBitmapSize, averageDownloadSize, averageOriginalBitmapSize, averageTransformedBitmapSize, downloadCount, originalBitmapCount, transformedBitmapCount, System.currentTimeMillis());
+        List<StatsSnapshot.PartitionStats> partitions = cache instanceof PartitionedCache ? ((PartitionedCache) cache).partitionStats() : Collections.emptyList();
+        return new StatsSnapshot(cache.maxSize(), cache.size(), cacheHits, cacheMisses, activeHits, bitmapPool.maxSize(), bitmapPool.size(), poolHits, poolMisses, totalDownloadSize, totalOriginalBitmapSize, totalTransformedBitmapSize, averageDownloadSize, averageOriginalBitmapSize, averageTransformedBitmapSize, downloadCount, originalBitmapCount, transformedBitmapCount, System.currentTimeMillis(), partitions, diskWriteQueueDepth, diskWriteCount, diskWritesDropped, averageDiskWriteTime, diskHits, diskMisses, thumbnailHits);
     }
 
     private void processBitmap(Bitmap bitmap, int what) {
@@ -140,12 +252,39 @@ class Stats {
                 case CACHE_MISS:
                     stats.performCacheMiss();
                     break;
+                case ACTIVE_HIT:
+                    stats.performActiveHit();
+                    break;
+                case DISK_HIT:
+                    stats.performDiskHit();
+                    break;
+                case DISK_MISS:
+                    stats.performDiskMiss();
+                    break;
+                case THUMBNAIL_HIT:
+                    stats.performThumbnailHit();
+                    break;
+                case POOL_HIT:
+                    stats.performPoolHit();
+                    break;
+                case POOL_MISS:
+                    stats.performPoolMiss();
+                    break;
                 case BITMAP_DECODE_FINISHED:
                     stats.performBitmapDecoded(msg.arg1);
                     break;
                 case BITMAP_TRANSFORMED_FINISHED:
                     stats.performBitmapTransformed(msg.arg1);
                     break;
+                case DISK_WRITE_QUEUED:
+                    stats.performDiskWriteQueued();
+                    break;
+                case DISK_WRITE_FINISHED:
+                    stats.performDiskWriteFinished((Long) msg.obj);
+                    break;
+                case DISK_WRITE_DROPPED:
+                    stats.performDiskWriteDropped(msg.arg1 != 0);
+                    break;
                 case DOWNLOAD_FINISHED:
                     stats.performDownloadFinished((Long) msg.obj);
                     break;
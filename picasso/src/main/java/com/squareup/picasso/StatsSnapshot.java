@@ -23,6 +23,8 @@ import androidx.annotation.NonNull;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -33,6 +35,11 @@ public class StatsSnapshot {
     public final int size;
     public final long cacheHits;
     public final long cacheMisses;
+    public final long activeHits;
+    public final int poolMaxSize;
+    public final int poolSize;
+    public final long poolHits;
+    public final long poolMisses;
     public final long totalDownloadSize;
     public final long totalOriginalBitmapSize;
     public final long totalTransformedBitmapSize;
@@ -44,12 +51,45 @@ public class StatsSnapshot {
     public final int transformedBitmapCount;
 
     public final long timeStamp;
+    /**
+     * The partitions of a {@link PartitionedCache} memory cache, or an empty list for other caches.
+     */
+    public final List<PartitionStats> partitions;
+    /**
+     * The number of disk cache writes waiting for the background writer.
+     */
+    public final int diskWriteQueueDepth;
+    public final long diskWriteCount;
+    public final long diskWritesDropped;
+    /**
+     * The average time in milliseconds the background writer took to store a result.
+     */
+    public final long averageDiskWriteTime;
+    /**
+     * Requests served from the pixel or result disk cache, and requests which looked there
+     * without success.
+     */
+    public final long diskHits;
+    public final long diskMisses;
+    /**
+     * Local images decoded from the thumbnail embedded in their EXIF data instead of in full.
+     */
+    public final long thumbnailHits;
 
     public StatsSnapshot(int maxSize, int size, long cacheHits, long cacheMisses, long totalDownloadSize, long totalOriginalBitmapSize, long totalTransformedBitmapSize, long averageDownloadSize, long averageOriginalBitmapSize, long averageTransformedBitmapSize, int downloadCount, int originalBitmapCount, int transformedBitmapCount, long timeStamp) {
+        this(maxSize, size, cacheHits, cacheMisses, 0, 0, 0, 0, 0, totalDownloadSize, totalOriginalBitmapSize, totalTransformedBitmapSize, averageDownloadSize, averageOriginalBitmapSize, averageTransformedBitmapSize, downloadCount, originalBitmapCount, transformedBitmapCount, timeStamp, Collections.emptyList(), 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    StatsSnapshot(int maxSize, int size, long cacheHits, long cacheMisses, long activeHits, int poolMaxSize, int poolSize, long poolHits, long poolMisses, long totalDownloadSize, long totalOriginalBitmapSize, long totalTransformedBitmapSize, long averageDownloadSize, long averageOriginalBitmapSize, long averageTransformedBitmapSize, int downloadCount, int originalBitmapCount, int transformedBitmapCount, long timeStamp, @NonNull List<PartitionStats> partitions, int diskWriteQueueDepth, long diskWriteCount, long diskWritesDropped, long averageDiskWriteTime, long diskHits, long diskMisses, long thumbnailHits) {
         this.maxSize = maxSize;
         this.size = size;
         this.cacheHits = cacheHits;
         this.cacheMisses = cacheMisses;
+        this.activeHits = activeHits;
+        this.poolMaxSize = poolMaxSize;
+        this.poolSize = poolSize;
+        this.poolHits = poolHits;
+        this.poolMisses = poolMisses;
         this.totalDownloadSize = totalDownloadSize;
         this.totalOriginalBitmapSize = totalOriginalBitmapSize;
         this.totalTransformedBitmapSize = totalTransformedBitmapSize;
@@ -60,6 +100,22 @@ public class StatsSnapshot {
         this.originalBitmapCount = originalBitmapCount;
         this.transformedBitmapCount = transformedBitmapCount;
         this.timeStamp = timeStamp;
+        this.partitions = Collections.unmodifiableList(partitions);
+        this.diskWriteQueueDepth = diskWriteQueueDepth;
+        this.diskWriteCount = diskWriteCount;
+        this.diskWritesDropped = diskWritesDropped;
+        this.averageDiskWriteTime = averageDiskWriteTime;
+        this.diskHits = diskHits;
+        this.diskMisses = diskMisses;
+        this.thumbnailHits = thumbnailHits;
+    }
+
+    /**
+     * Returns the share of disk cache lookups which found their image, or 0 if there were none.
+     */
+    public float diskHitRatio() {
+        long lookups = diskHits + diskMisses;
+        return lookups == 0 ? 0f : (float) diskHits / lookups;
     }
 
     /**
@@ -88,6 +144,47 @@ public class StatsSnapshot {
         writer.println(cacheHits);
         writer.print("  Cache Misses: ");
         writer.println(cacheMisses);
+        writer.print("  Active Hits: ");
+        writer.println(activeHits);
+        for (int i = 0, n = partitions.size(); i < n; i++) {
+            PartitionStats partition = partitions.get(i);
+            writer.print("  Partition '");
+            writer.print(partition.name);
+            writer.println("'");
+            writer.print("    Max Size: ");
+            writer.println(partition.maxSize);
+            writer.print("    Size: ");
+            writer.println(partition.size);
+            writer.print("    Hits: ");
+            writer.println(partition.hits);
+            writer.print("    Evictions: ");
+            writer.println(partition.evictions);
+        }
+        writer.println("Bitmap Pool Stats");
+        writer.print("  Max Pool Size: ");
+        writer.println(poolMaxSize);
+        writer.print("  Pool Size: ");
+        writer.println(poolSize);
+        writer.print("  Pool Hits: ");
+        writer.println(poolHits);
+        writer.print("  Pool Misses: ");
+        writer.println(poolMisses);
+        writer.println("Disk Cache Stats");
+        writer.print("  Disk Hits: ");
+        writer.println(diskHits);
+        writer.print("  Disk Misses: ");
+        writer.println(diskMisses);
+        writer.print("  Disk Hit %: ");
+        writer.println((int) Math.ceil(diskHitRatio() * 100));
+        writer.println("Disk Cache Write Stats");
+        writer.print("  Queue Depth: ");
+        writer.println(diskWriteQueueDepth);
+        writer.print("  Writes: ");
+        writer.println(diskWriteCount);
+        writer.print("  Dropped Writes: ");
+        writer.println(diskWritesDropped);
+        writer.print("  Average Write Time: ");
+        writer.println(averageDiskWriteTime);
         writer.println("Network Stats");
         writer.print("  Download Count: ");
         writer.println(downloadCount);
@@ -108,6 +205,8 @@ public class StatsSnapshot {
         writer.println(averageOriginalBitmapSize);
         writer.print("  Average Transformed Bitmap Size: ");
         writer.println(averageTransformedBitmapSize);
+        writer.print("  EXIF Thumbnail Hits: ");
+        writer.println(thumbnailHits);
         writer.println("===============END PICASSO STATS ===============");
         writer.flush();
     }
@@ -115,7 +214,32 @@ public class StatsSnapshot {
     @NonNull
     @Override
     public String toString() {
-        return String.format(Locale.getDefault(), "StatsSnapshot{maxSize=%d, size=%d, cacheHits=%d, cacheMisses=%d, downloadCount=%d, totalDownloadSize=%d, averageDownloadSize=%d, totalOriginalBitmapSize=%d, totalTransformedBitmapSize=%d, averageOriginalBitmapSize=%d, averageTransformedBitmapSize=%d, originalBitmapCount=%d, transformedBitmapCount=%d, timeStamp=%d}", maxSize,                         // int
-                size, cacheHits, cacheMisses, downloadCount, totalDownloadSize, averageDownloadSize, totalOriginalBitmapSize, totalTransformedBitmapSize, averageOriginalBitmapSize, averageTransformedBitmapSize, originalBitmapCount, transformedBitmapCount, timeStamp);
+        return String.format(Locale.getDefault(), "StatsSnapshot{maxSize=%d, size=%d, cacheHits=%d, cacheMisses=%d, activeHits=%d, poolMaxSize=%d, poolSize=%d, poolHits=%d, poolMisses=%d, downloadCount=%d, totalDownloadSize=%d, averageDownloadSize=%d, totalOriginalBitmapSize=%d, totalTransformedBitmapSize=%d, averageOriginalBitmapSize=%d, averageTransformedBitmapSize=%d, originalBitmapCount=%d, transformedBitmapCount=%d, timeStamp=%d, partitions=%s, diskWriteQueueDepth=%d, diskWriteCount=%d, diskWritesDropped=%d, averageDiskWriteTime=%d, diskHits=%d, diskMisses=%d, thumbnailHits=%d}", maxSize,                         // int
+                size, cacheHits, cacheMisses, activeHits, poolMaxSize, poolSize, poolHits, poolMisses, downloadCount, totalDownloadSize, averageDownloadSize, totalOriginalBitmapSize, totalTransformedBitmapSize, averageOriginalBitmapSize, averageTransformedBitmapSize, originalBitmapCount, transformedBitmapCount, timeStamp, partitions, diskWriteQueueDepth, diskWriteCount, diskWritesDropped, averageDiskWriteTime, diskHits, diskMisses, thumbnailHits);
+    }
+
+    /**
+     * The stats of one partition of a {@link PartitionedCache}.
+     */
+    public static final class PartitionStats {
+        public final String name;
+        public final int maxSize;
+        public final int size;
+        public final long hits;
+        public final long evictions;
+
+        public PartitionStats(@NonNull String name, int maxSize, int size, long hits, long evictions) {
+            this.name = name;
+            this.maxSize = maxSize;
+            this.size = size;
+            this.hits = hits;
+            this.evictions = evictions;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.getDefault(), "PartitionStats{name=%s, maxSize=%d, size=%d, hits=%d, evictions=%d}", name, maxSize, size, hits, evictions);
+        }
     }
 }
@@ -24,10 +24,18 @@ import com.squareup.picasso.interfaces.Target;
 
 final class TargetAction extends Action<Target> {
 
-    TargetAction(Picasso picasso, Target target, Request data, int memoryPolicy, int networkPolicy, Drawable errorDrawable, String key, Object tag, int errorResId) {
+    TargetAction(Picasso picasso, Target target, Request data, int memoryPolicy, int networkPolicy, Drawable errorDrawable, CacheKey key, Object tag, int errorResId) {
         super(picasso, target, data, memoryPolicy, networkPolicy, errorResId, errorDrawable, key, tag, false);
     }
 
+    @Override
+    void preview(Bitmap preview) {
+        Target target = getTarget();
+        if (target != null) {
+            target.onPreviewLoaded(preview);
+        }
+    }
+
     @Override
     void complete(Bitmap result, Picasso.LoadedFrom from) {
         if (result == null) {
@@ -39,6 +47,7 @@ final class TargetAction extends Action<Target> {
             if (result.isRecycled()) {
                 throw new IllegalStateException("Target callback must not recycle bitmap!");
             }
+            picasso.activate(target, key, result);
         }
     }
 
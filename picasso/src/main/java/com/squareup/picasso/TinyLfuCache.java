@@ -0,0 +1,478 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.squareup.picasso.interfaces.BitmapPool;
+import com.squareup.picasso.interfaces.Cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A memory cache which uses a W-TinyLFU eviction policy.
+ * <p>
+ * New images enter a small LRU window. Once they fall out of the window they are only admitted to
+ * the main area if they have been requested more often than the images they would displace, as
+ * estimated by a count-min frequency sketch. The main area is a segmented LRU where images that are
+ * hit again are promoted from probation to a protected segment. This keeps frequently used images,
+ * such as grid thumbnails, from being flushed by a burst of images which are only shown once.
+ */
+public final class TinyLfuCache implements Cache {
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final int maxSize;
+    private final int windowMaxSize;
+    private final int mainMaxSize;
+    private final int protectedMaxSize;
+    private final BitmapPool bitmapPool;
+    private final FrequencySketch sketch;
+    private final CacheKeyIndex index = new CacheKeyIndex();
+
+    private final LinkedHashMap<CacheKey, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<CacheKey, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<CacheKey, Entry> protectedArea = new LinkedHashMap<>(16, 0.75f, true);
+    private int windowSize;
+    private int probationSize;
+    private int protectedSize;
+
+    private int hitCount;
+    private int missCount;
+    private int putCount;
+    private int evictionCount;
+    private int rejectionCount;
+
+    /**
+     * Create a cache using an appropriate portion of the available RAM as the maximum size.
+     */
+    public TinyLfuCache(@NonNull Context context) {
+        this(Utils.calculateMemoryCacheSize(context));
+    }
+
+    /**
+     * Create a cache with a given maximum size in bytes.
+     */
+    public TinyLfuCache(int maxByteCount) {
+        this(maxByteCount, BitmapPool.NONE);
+    }
+
+    /**
+     * Create a cache with a given maximum size in bytes which offers evicted bitmaps to
+     * {@code bitmapPool}.
+     */
+    public TinyLfuCache(int maxByteCount, @NonNull BitmapPool bitmapPool) {
+        if (maxByteCount <= 0) {
+            throw new IllegalArgumentException("Max byte count must be positive.");
+        }
+        this.maxSize = maxByteCount;
+        this.windowMaxSize = (int) ((long) maxByteCount * WINDOW_PERCENT / 100);
+        this.mainMaxSize = maxByteCount - windowMaxSize;
+        this.protectedMaxSize = (int) ((long) mainMaxSize * PROTECTED_PERCENT / 100);
+        this.bitmapPool = Utils.checkNotNull(bitmapPool, "bitmapPool == null");
+        // Assume an average image of roughly 32KB to size the sketch.
+        this.sketch = new FrequencySketch(Math.max(256, maxByteCount >>> 15));
+    }
+
+    @Nullable
+    @Override
+    public Bitmap get(@NonNull String key) {
+        return get(CacheKey.fromString(key));
+    }
+
+    @Nullable
+    @Override
+    public synchronized Bitmap get(@NonNull CacheKey key) {
+        sketch.increment(key);
+
+        Entry entry = window.get(key);
+        if (entry == null) {
+            entry = protectedArea.get(key);
+        }
+        if (entry == null) {
+            entry = probation.remove(key);
+            if (entry != null) {
+                probationSize -= entry.byteCount;
+                promote(key, entry);
+            }
+        }
+
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.bitmap;
+    }
+
+    @Override
+    public void set(@NonNull String key, @NonNull Bitmap bitmap) {
+        set(CacheKey.fromString(key), bitmap, null);
+    }
+
+    @Override
+    public void set(@NonNull String key, @NonNull Bitmap bitmap, @Nullable Object tag) {
+        set(CacheKey.fromString(key), bitmap, tag);
+    }
+
+    @Override
+    public void set(@NonNull CacheKey key, @NonNull Bitmap bitmap, @Nullable Object tag) {
+        int byteCount = Utils.getBitmapBytes(bitmap);
+        List<Bitmap> evicted = new ArrayList<>(2);
+
+        synchronized (this) {
+            remove(key);
+
+            // If the bitmap is too big for the main area, don't even attempt to store it. Doing so
+            // would cause the cache to be cleared.
+            if (byteCount > mainMaxSize) {
+                return;
+            }
+
+            window.put(key, new Entry(bitmap, byteCount));
+            index.add(key, bitmap, tag);
+            windowSize += byteCount;
+            putCount++;
+
+            evictFromWindow(evicted);
+        }
+
+        // Hand bitmaps back outside of the lock, pools may be slow or contended.
+        for (int i = 0, n = evicted.size(); i < n; i++) {
+            ActiveResources.recycle(bitmapPool, evicted.get(i));
+        }
+    }
+
+    /**
+     * Move an entry which was hit while on probation into the protected segment, demoting the
+     * least-recently used protected entries back to probation if it is over its share.
+     */
+    private void promote(CacheKey key, Entry entry) {
+        protectedArea.put(key, entry);
+        protectedSize += entry.byteCount;
+
+        Iterator<Map.Entry<CacheKey, Entry>> iterator = protectedArea.entrySet().iterator();
+        while (protectedSize > protectedMaxSize && iterator.hasNext()) {
+            Map.Entry<CacheKey, Entry> eldest = iterator.next();
+            if (eldest.getValue() == entry) {
+                break;
+            }
+            iterator.remove();
+            protectedSize -= eldest.getValue().byteCount;
+            probation.put(eldest.getKey(), eldest.getValue());
+            probationSize += eldest.getValue().byteCount;
+        }
+    }
+
+    /**
+     * Offer entries which overflowed the window to the main area. A candidate is admitted only if
+     * it is estimated to be used more often than every entry it would displace.
+     */
+    private void evictFromWindow(List<Bitmap> evicted) {
+        Iterator<Map.Entry<CacheKey, Entry>> windowIterator = window.entrySet().iterator();
+        while (windowSize > windowMaxSize && windowIterator.hasNext()) {
+            Map.Entry<CacheKey, Entry> candidate = windowIterator.next();
+            windowIterator.remove();
+            Entry candidateEntry = candidate.getValue();
+            windowSize -= candidateEntry.byteCount;
+
+            if (admit(candidate.getKey(), candidateEntry.byteCount, evicted)) {
+                probation.put(candidate.getKey(), candidateEntry);
+                probationSize += candidateEntry.byteCount;
+            } else {
+                // Dropped, never pooled: a rejected candidate may be the bitmap being set right now,
+                // which its hunter is about to deliver.
+                rejectionCount++;
+                index.remove(candidate.getKey());
+            }
+        }
+    }
+
+    private boolean admit(CacheKey candidateKey, int byteCount, List<Bitmap> evicted) {
+        int required = probationSize + protectedSize + byteCount - mainMaxSize;
+        if (required <= 0) {
+            return true;
+        }
+
+        // Victims are taken from the cold end of probation first, then from protected.
+        int candidateFrequency = sketch.frequency(candidateKey);
+        int freed = 0;
+        List<CacheKey> victims = new ArrayList<>();
+        freed = collectVictims(probation, candidateFrequency, required, freed, victims);
+        if (freed < required) {
+            freed = collectVictims(protectedArea, candidateFrequency, required, freed, victims);
+        }
+        if (freed < required) {
+            return false;
+        }
+
+        for (int i = 0, n = victims.size(); i < n; i++) {
+            CacheKey victim = victims.get(i);
+            Entry entry = probation.remove(victim);
+            if (entry != null) {
+                probationSize -= entry.byteCount;
+            } else {
+                entry = protectedArea.remove(victim);
+                protectedSize -= entry.byteCount;
+            }
+            evictionCount++;
+            index.remove(victim);
+            evicted.add(entry.bitmap);
+        }
+        return true;
+    }
+
+    /**
+     * Add keys from the cold end of {@code area} to {@code victims} until {@code required} bytes
+     * are freed, returning the total freed bytes or {@code -1} once a victim is at least as
+     * popular as the candidate.
+     */
+    private int collectVictims(LinkedHashMap<CacheKey, Entry> area, int candidateFrequency, int required, int freed, List<CacheKey> victims) {
+        if (freed < 0) {
+            return freed;
+        }
+        for (Map.Entry<CacheKey, Entry> entry : area.entrySet()) {
+            if (freed >= required) {
+                break;
+            }
+            if (sketch.frequency(entry.getKey()) >= candidateFrequency) {
+                return -1;
+            }
+            victims.add(entry.getKey());
+            freed += entry.getValue().byteCount;
+        }
+        return freed;
+    }
+
+    private void remove(CacheKey key) {
+        Entry entry = window.remove(key);
+        if (entry != null) {
+            windowSize -= entry.byteCount;
+        } else if ((entry = probation.remove(key)) != null) {
+            probationSize -= entry.byteCount;
+        } else if ((entry = protectedArea.remove(key)) != null) {
+            protectedSize -= entry.byteCount;
+        }
+        if (entry != null) {
+            index.remove(key);
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return windowSize + probationSize + protectedSize;
+    }
+
+    @Override
+    public int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public void clear() {
+        List<Bitmap> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : window.values()) {
+                evicted.add(entry.bitmap);
+            }
+            for (Entry entry : probation.values()) {
+                evicted.add(entry.bitmap);
+            }
+            for (Entry entry : protectedArea.values()) {
+                evicted.add(entry.bitmap);
+            }
+            evictionCount += evicted.size();
+            window.clear();
+            probation.clear();
+            protectedArea.clear();
+            index.clear();
+            windowSize = probationSize = protectedSize = 0;
+        }
+        for (int i = 0, n = evicted.size(); i < n; i++) {
+            ActiveResources.recycle(bitmapPool, evicted.get(i));
+        }
+    }
+
+    /**
+     * Evict entries until the cache holds at most {@code maxSize} bytes, starting with the
+     * least-recently used entries on probation, then the window, then the protected segment.
+     */
+    @Override
+    public void trimToSize(int maxSize) {
+        List<Bitmap> evicted = new ArrayList<>();
+        synchronized (this) {
+            probationSize = trimArea(probation, probationSize, maxSize - windowSize - protectedSize, evicted);
+            windowSize = trimArea(window, windowSize, maxSize - probationSize - protectedSize, evicted);
+            protectedSize = trimArea(protectedArea, protectedSize, maxSize - probationSize - windowSize, evicted);
+            evictionCount += evicted.size();
+        }
+        for (int i = 0, n = evicted.size(); i < n; i++) {
+            ActiveResources.recycle(bitmapPool, evicted.get(i));
+        }
+    }
+
+    private int trimArea(LinkedHashMap<CacheKey, Entry> area, int areaSize, int areaMaxSize, List<Bitmap> evicted) {
+        Iterator<Map.Entry<CacheKey, Entry>> iterator = area.entrySet().iterator();
+        while (areaSize > areaMaxSize && iterator.hasNext()) {
+            Map.Entry<CacheKey, Entry> eldest = iterator.next();
+            iterator.remove();
+            areaSize -= eldest.getValue().byteCount;
+            index.remove(eldest.getKey());
+            evicted.add(eldest.getValue().bitmap);
+        }
+        return areaSize;
+    }
+
+    @Override
+    public synchronized void clearKeyUri(String uri) {
+        // Keys are prefixed with a URI followed by '\n', which is exactly their key base.
+        for (CacheKey key : index.keysForBase(uri)) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public synchronized void clearTag(@NonNull Object tag) {
+        for (CacheKey key : index.keysForTag(tag)) {
+            remove(key);
+        }
+    }
+
+    @Nullable
+    @Override
+    public CacheKey findVariant(@NonNull String keyBase, int minWidth, int minHeight) {
+        return index.findVariant(keyBase, minWidth, minHeight);
+    }
+
+    @Override
+    public boolean respectsPins() {
+        return true;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned a value.
+     */
+    public synchronized int hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned {@code null}.
+     */
+    public synchronized int missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of times {@link #set(CacheKey, Bitmap, Object)} stored a value.
+     */
+    public synchronized int putCount() {
+        return putCount;
+    }
+
+    /**
+     * Returns the number of values that have been evicted from the main area.
+     */
+    public synchronized int evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of values that fell out of the window and were not admitted.
+     */
+    public synchronized int rejectionCount() {
+        return rejectionCount;
+    }
+
+    static final class Entry {
+        final Bitmap bitmap;
+        final int byteCount;
+
+        Entry(Bitmap bitmap, int byteCount) {
+            this.bitmap = bitmap;
+            this.byteCount = byteCount;
+        }
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters estimating how often each key was requested. Counters
+     * are halved periodically so that the estimate favors recent popularity.
+     */
+    static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x97cb3127, 0xb8bb7e5d, 0x61c88647, 0x2f4a7c15};
+
+        private final byte[][] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int expectedEntries) {
+            int width = Integer.highestOneBit(Math.max(16, expectedEntries - 1) << 1);
+            this.table = new byte[DEPTH][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * width;
+        }
+
+        private int indexOf(int hash, int row) {
+            int h = hash * SEEDS[row];
+            h ^= (h >>> 16);
+            return h & mask;
+        }
+
+        void increment(CacheKey key) {
+            int hash = key.hashCode();
+            boolean added = false;
+            for (int row = 0; row < DEPTH; row++) {
+                int index = indexOf(hash, row);
+                if (table[row][index] < MAX_COUNT) {
+                    table[row][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(CacheKey key) {
+            int hash = key.hashCode();
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                frequency = Math.min(frequency, table[row][indexOf(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private void reset() {
+            for (byte[] row : table) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >>> 1);
+                }
+            }
+            additions /= 2;
+        }
+    }
+}
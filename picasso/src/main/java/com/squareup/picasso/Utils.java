@@ -31,7 +31,6 @@ import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
 import android.os.Process;
-import android.os.StatFs;
 import android.provider.Settings;
 import android.util.Log;
 
@@ -51,10 +50,6 @@ final class Utils {
     static final String THREAD_IDLE_NAME = THREAD_PREFIX + "Idle";
     static final int THREAD_LEAK_CLEANING_MS = 1000;
     static final char KEY_SEPARATOR = '\n';
-    /**
-     * Thread confined to main thread for key creation.
-     */
-    static final StringBuilder MAIN_THREAD_KEY_BUILDER = new StringBuilder();
     /**
      * Logging
      */
@@ -80,9 +75,8 @@ final class Utils {
     static final String VERB_PAUSED = "paused";
     static final String VERB_RESUMED = "resumed";
     private static final String PICASSO_CACHE = "picasso-cache";
-    private static final int KEY_PADDING = 50; // Determined by exact science.
     private static final int MIN_DISK_CACHE_SIZE = 5 * 1024 * 1024; // 5MB
-    private static final int MAX_DISK_CACHE_SIZE = 50 * 1024 * 1024; // 50MB
+    private static final int MAX_DISK_CACHE_SIZE = 250 * 1024 * 1024; // 250MB
     /* WebP file header
        0                   1                   2                   3
        0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1 2 3 4 5 6 7 8 9 0 1
@@ -160,51 +154,38 @@ final class Utils {
         Log.d(TAG, format("%1$-11s %2$-12s %3$s %4$s", owner, verb, logId, extras));
     }
 
-    static String createKey(Request data) {
-        String result = createKey(data, MAIN_THREAD_KEY_BUILDER);
-        MAIN_THREAD_KEY_BUILDER.setLength(0);
-        return result;
+    /**
+     * Returns the part of a {@link CacheKey#toString() string key} which identifies the source image.
+     */
+    static String getKeyBase(String key) {
+        int separator = key.indexOf(KEY_SEPARATOR);
+        return separator == -1 ? key : key.substring(0, separator);
     }
 
-    static String createKey(Request data, StringBuilder builder) {
-        if (data.stableKey != null) {
-            builder.ensureCapacity(data.stableKey.length() + KEY_PADDING);
-            builder.append(data.stableKey);
-        } else if (data.uri != null) {
-            String path = data.uri.toString();
-            builder.ensureCapacity(path.length() + KEY_PADDING);
-            builder.append(path);
-        } else {
-            builder.ensureCapacity(KEY_PADDING);
-            builder.append(data.resourceId);
-        }
-        builder.append(KEY_SEPARATOR);
-
-        if (data.rotationDegrees != 0) {
-            builder.append("rotation:").append(data.rotationDegrees);
-            if (data.hasRotationPivot) {
-                builder.append('@').append(data.rotationPivotX).append('x').append(data.rotationPivotY);
-            }
-            builder.append(KEY_SEPARATOR);
+    /**
+     * Returns whether a {@link CacheKey#toString() string key} describes the complete, undistorted source
+     * image: either the original or a resize which keeps the aspect ratio and does not crop.
+     */
+    static boolean isFullContentKey(String key) {
+        int separator = key.indexOf(KEY_SEPARATOR);
+        if (separator == -1) {
+            return false;
         }
-        if (data.hasSize()) {
-            builder.append("resize:").append(data.targetWidth).append('x').append(data.targetHeight);
-            builder.append(KEY_SEPARATOR);
+        String options = key.substring(separator + 1);
+        if (options.isEmpty()) {
+            return true;
         }
-        if (data.centerCrop) {
-            builder.append("centerCrop:").append(data.centerCropGravity).append(KEY_SEPARATOR);
-        } else if (data.centerInside) {
-            builder.append("centerInside").append(KEY_SEPARATOR);
+        if (!options.startsWith("resize:")) {
+            return false;
         }
-
-        if (data.transformations != null) {
-            for (int i = 0, count = data.transformations.size(); i < count; i++) {
-                builder.append(data.transformations.get(i).key());
-                builder.append(KEY_SEPARATOR);
-            }
+        int sizeEnd = options.indexOf(KEY_SEPARATOR);
+        String rest = options.substring(sizeEnd + 1);
+        if (rest.equals("centerInside" + KEY_SEPARATOR)) {
+            return true;
         }
-
-        return builder.toString();
+        // Resizing with a single dimension keeps the aspect ratio.
+        String size = options.substring("resize:".length(), sizeEnd);
+        return rest.isEmpty() && (size.startsWith("0x") || size.endsWith("x0"));
     }
 
     static File createDefaultCacheDir(Context context) {
@@ -217,20 +198,8 @@ final class Utils {
     }
 
     static long calculateDiskCacheSize(File dir) {
-        long size = MIN_DISK_CACHE_SIZE;
-
-        try {
-            StatFs statFs = new StatFs(dir.getAbsolutePath());
-            long blockCount = statFs.getBlockCountLong();
-            long blockSize = statFs.getBlockSizeLong();
-            long available = blockCount * blockSize;
-            // Target 2% of the total space.
-            size = available / 50;
-        } catch (IllegalArgumentException ignored) {
-        }
-
-        // Bound inside min/max size for disk cache.
-        return Math.max(Math.min(size, MAX_DISK_CACHE_SIZE), MIN_DISK_CACHE_SIZE);
+        // OkHttp's cache cannot be resized later, so this is computed once.
+        return Math.max(DiskCacheSizePolicy.calculate(dir, 0, MIN_DISK_CACHE_SIZE, MAX_DISK_CACHE_SIZE), 1);
     }
 
     static int calculateMemoryCacheSize(Context context) {
@@ -241,6 +210,11 @@ final class Utils {
         return (int) (1024L * 1024L * memoryClass / 7);
     }
 
+    static int calculateBitmapPoolSize(Context context) {
+        // Target half of the memory cache budget.
+        return calculateMemoryCacheSize(context) / 2;
+    }
+
     static boolean isAirplaneModeOn(Context context) {
         ContentResolver contentResolver = context.getContentResolver();
         try {
@@ -312,6 +286,19 @@ final class Utils {
         }
     }
 
+    /**
+     * Returns the time {@code packageName} was last installed or updated, which versions its
+     * resources and assets, or {@code null} if it is not installed.
+     */
+    static String getPackageVersion(Context context, String packageName) {
+        try {
+            PackageManager pm = context.getPackageManager();
+            return String.valueOf(pm.getPackageInfo(packageName, 0).lastUpdateTime);
+        } catch (PackageManager.NameNotFoundException e) {
+            return null;
+        }
+    }
+
     /**
      * Prior to Android 5, HandlerThread always keeps a stack local reference to the last message
      * that was sent to it. This method makes sure that stack local reference never stays there
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso.interfaces;
+
+import androidx.annotation.NonNull;
+
+import okhttp3.Call;
+
+/**
+ * A {@link Downloader} which can download without blocking a thread. Picasso enqueues its calls and
+ * only takes one of its own threads to decode once the whole response has arrived, so slow
+ * downloads do not hold up local images. {@link #load(okhttp3.Request)} is still used where a
+ * blocking call is required.
+ */
+public interface AsyncDownloader extends Downloader {
+    /**
+     * Prepare a call downloading {@code request}. Picasso enqueues and, if the image is no longer
+     * needed, cancels it.
+     */
+    @NonNull
+    Call newCall(@NonNull okhttp3.Request request);
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso.interfaces;
+
+import android.graphics.Bitmap;
+
+/**
+ * A pool of mutable bitmaps which can be reused as {@link android.graphics.BitmapFactory.Options#inBitmap
+ * inBitmap} when decoding new images.
+ * <p>
+ * <em>Note:</em> The {@link BitmapPool} is accessed by multiple threads. You must ensure your
+ * implementation is thread safe.
+ */
+public interface BitmapPool {
+    /**
+     * A pool which never stores any bitmaps.
+     */
+    BitmapPool NONE = new BitmapPool() {
+        @Override
+        public Bitmap get(int width, int height, Bitmap.Config config) {
+            return null;
+        }
+
+        @Override
+        public boolean put(Bitmap bitmap) {
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public int maxSize() {
+            return 0;
+        }
+
+        @Override
+        public void clear() {
+        }
+    };
+
+    /**
+     * Retrieve a mutable bitmap able to hold {@code width} x {@code height} pixels in the given
+     * {@code config} or {@code null}. The returned bitmap is removed from the pool and its contents
+     * are undefined.
+     */
+    Bitmap get(int width, int height, Bitmap.Config config);
+
+    /**
+     * Offer a bitmap that is no longer used to the pool.
+     *
+     * @return {@code true} if the pool kept the bitmap, {@code false} if it was rejected.
+     */
+    boolean put(Bitmap bitmap);
+
+    /**
+     * Returns the current size of the pool in bytes.
+     */
+    int size();
+
+    /**
+     * Returns the maximum size in bytes that the pool can hold.
+     */
+    int maxSize();
+
+    /**
+     * Clears the pool.
+     */
+    void clear();
+
+    /**
+     * Drop bitmaps until the pool holds at most {@code maxSize} bytes. Called when the system is
+     * low on memory.
+     * <p>
+     * The default implementation clears the whole pool if it is larger than {@code maxSize}.
+     */
+    default void trimToSize(int maxSize) {
+        if (size() > maxSize) {
+            clear();
+        }
+    }
+}
@@ -17,6 +17,8 @@ package com.squareup.picasso.interfaces;
 
 import android.graphics.Bitmap;
 
+import com.squareup.picasso.CacheKey;
+
 /**
  * A memory cache for storing the most recently used images.
  * <p>
@@ -39,6 +41,16 @@ public interface Cache {
             // Ignore.
         }
 
+        @Override
+        public Bitmap get(CacheKey key) {
+            return null;
+        }
+
+        @Override
+        public void set(CacheKey key, Bitmap bitmap, Object tag) {
+            // Ignore.
+        }
+
         @Override
         public int size() {
             return 0;
@@ -56,6 +68,11 @@ public interface Cache {
         @Override
         public void clearKeyUri(String keyPrefix) {
         }
+
+        @Override
+        public boolean respectsPins() {
+            return true;
+        }
     };
 
     /**
@@ -68,6 +85,48 @@ public interface Cache {
      */
     void set(String key, Bitmap bitmap);
 
+    /**
+     * Store an image in the cache for the specified {@code key}, remembering the {@code tag} of
+     * the request which loaded it so that it can be removed with {@link #clearTag(Object)}.
+     * <p>
+     * The default implementation ignores the tag.
+     */
+    default void set(String key, Bitmap bitmap, Object tag) {
+        set(key, bitmap);
+    }
+
+    /**
+     * Retrieve an image for the specified {@code key} or {@code null}. This is the lookup Picasso
+     * uses for its requests.
+     * <p>
+     * The default implementation looks up the {@link CacheKey#toString() string form} of the key.
+     */
+    default Bitmap get(CacheKey key) {
+        return get(key.toString());
+    }
+
+    /**
+     * Store an image in the cache for the specified {@code key}, remembering the {@code tag} of
+     * the request which loaded it. This is how Picasso stores the results of its requests.
+     * <p>
+     * The default implementation stores it under the {@link CacheKey#toString() string form} of
+     * the key.
+     */
+    default void set(CacheKey key, Bitmap bitmap, Object tag) {
+        set(key.toString(), bitmap, tag);
+    }
+
+    /**
+     * Store an image in the cache for the specified {@code key}, remembering the {@code tag} of
+     * the request which loaded it, in the partition named {@code partition} if it is not
+     * {@code null}.
+     * <p>
+     * The default implementation ignores the partition.
+     */
+    default void set(CacheKey key, Bitmap bitmap, Object tag, String partition) {
+        set(key, bitmap, tag);
+    }
+
     /**
      * Returns the current size of the cache in bytes.
      */
@@ -83,8 +142,51 @@ public interface Cache {
      */
     void clear();
 
+    /**
+     * Evict entries until the cache holds at most {@code maxSize} bytes. Called when the system
+     * is low on memory.
+     * <p>
+     * The default implementation clears the whole cache if it is larger than {@code maxSize}.
+     */
+    default void trimToSize(int maxSize) {
+        if (size() > maxSize) {
+            clear();
+        }
+    }
+
     /**
      * Remove items whose key is prefixed with {@code keyPrefix}.
      */
     void clearKeyUri(String keyPrefix);
+
+    /**
+     * Remove items which were stored with {@code tag}.
+     * <p>
+     * The default implementation does nothing.
+     */
+    default void clearTag(Object tag) {
+    }
+
+    /**
+     * Returns the key of the smallest cached image of the source identified by {@code keyBase}
+     * which shows the complete, undistorted image at no less than {@code minWidth} x
+     * {@code minHeight}, or {@code null}. A dimension of 0 is unconstrained. The image stored under
+     * that key remains owned by the cache and must not be modified.
+     * <p>
+     * The default implementation does not track variants and always returns {@code null}.
+     */
+    default CacheKey findVariant(String keyBase, int minWidth, int minHeight) {
+        return null;
+    }
+
+    /**
+     * Returns whether this cache never pools or recycles an evicted image which Picasso still
+     * holds on to, by checking with Picasso before it does. Picasso copies the images it has yet
+     * to write to its disk caches when this returns {@code false}.
+     * <p>
+     * The default implementation returns {@code false}.
+     */
+    default boolean respectsPins() {
+        return false;
+    }
 }
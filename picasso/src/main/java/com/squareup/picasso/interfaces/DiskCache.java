@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso.interfaces;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.squareup.picasso.CacheKey;
+
+import java.io.IOException;
+
+import okio.ByteString;
+import okio.Source;
+
+/**
+ * A disk cache for storing encoded images which have already been resized and transformed.
+ * <p>
+ * Every entry is stored with the version of the source it was created from, as reported by
+ * {@link com.squareup.picasso.RequestHandler#getSourceVersion}. An entry is only returned for the
+ * same version, so changes to the source are never hidden by the cache.
+ * <p>
+ * <em>Note:</em> The {@link DiskCache} is accessed by multiple threads. You must ensure your
+ * {@link DiskCache} implementation is thread safe.
+ */
+public interface DiskCache {
+    /**
+     * Open the image stored for {@code key} if it was created from {@code version} of its source,
+     * or return {@code null}. The caller closes the returned source.
+     */
+    @Nullable
+    Source get(@NonNull CacheKey key, @NonNull String version) throws IOException;
+
+    /**
+     * Store the encoded image {@code data} for {@code key}, created from {@code version} of its
+     * source.
+     */
+    void set(@NonNull CacheKey key, @NonNull String version, @NonNull ByteString data) throws IOException;
+
+    /**
+     * Returns the current size of the cache in bytes.
+     */
+    long size();
+
+    /**
+     * Returns the maximum size in bytes that the cache can hold.
+     */
+    long maxSize();
+
+    /**
+     * Clears the cache.
+     */
+    void clear();
+
+    /**
+     * Remove the images of the source identified by {@code keyBase}.
+     */
+    void clearKeyUri(@NonNull String keyBase);
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso.interfaces;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Maps request URIs to the identity they are cached and shared under, so that URIs which differ
+ * only in volatile parts, such as rotating signature tokens, hit the same cache entries. Requests
+ * with an explicit {@code stableKey} are not normalized.
+ * <p>
+ * Normalizers run on the main thread for every request and should avoid allocating when a URI
+ * needs no change.
+ */
+public interface KeyNormalizer {
+    /**
+     * Returns the stable identity of {@code uri}, or {@code null} to use the URI as it is.
+     */
+    @Nullable
+    String normalize(@NonNull Uri uri);
+
+    /**
+     * A {@link KeyNormalizer} which removes the query parameters named {@code names}, keeping the
+     * rest of the URI as it is.
+     */
+    @NonNull
+    static KeyNormalizer removeQueryParameters(@NonNull String... names) {
+        String[] removed = Arrays.copyOf(names, names.length);
+        return uri -> removeQueryParameters(uri.toString(), removed);
+    }
+
+    private static String removeQueryParameters(String uri, String[] names) {
+        int query = uri.indexOf('?');
+        if (query == -1) {
+            return null;
+        }
+        int end = uri.indexOf('#', query);
+        if (end == -1) {
+            end = uri.length();
+        }
+        StringBuilder builder = null;
+        int start = query + 1;
+        while (start <= end) {
+            int next = uri.indexOf('&', start);
+            if (next == -1 || next > end) {
+                next = end;
+            }
+            if (isNamed(uri, start, next, names)) {
+                if (builder == null) {
+                    // Only allocate once a parameter is actually removed.
+                    builder = new StringBuilder(uri.length()).append(uri, 0, start);
+                }
+            } else if (builder != null) {
+                builder.append(uri, start, next).append('&');
+            }
+            start = next + 1;
+        }
+        if (builder == null) {
+            return null;
+        }
+        // Drop the trailing separator, or the question mark if no parameter is left.
+        builder.setLength(builder.length() - 1);
+        return builder.append(uri, end, uri.length()).toString();
+    }
+
+    private static boolean isNamed(String uri, int start, int end, String[] names) {
+        int equals = uri.indexOf('=', start);
+        int nameEnd = equals == -1 || equals > end ? end : equals;
+        for (String name : names) {
+            if (name.length() == nameEnd - start && uri.regionMatches(start, name, 0, name.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -56,4 +56,14 @@ public interface Target {
      * or {@link RequestCreator#placeholder(int)}.
      */
     void onPrepareLoad(Drawable placeHolderDrawable);
+
+    /**
+     * Callback with a low-quality preview of an image which is still downloading, for requests
+     * made with {@link RequestCreator#progressive()}. It may be called several times before
+     * {@link #onBitmapLoaded(Bitmap, LoadedFrom)}.
+     * <p>
+     * <strong>Note:</strong> You must not recycle the bitmap.
+     */
+    default void onPreviewLoaded(Bitmap bitmap) {
+    }
 }
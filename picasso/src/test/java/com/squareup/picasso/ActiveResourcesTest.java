@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import static com.squareup.picasso.CacheTraces.ENTRY_SIZE;
+import static com.squareup.picasso.CacheTraces.bitmap;
+import static com.squareup.picasso.CacheTraces.key;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+
+public final class ActiveResourcesTest {
+    @Test
+    public void pinnedUnderTwoKeysStaysInUseUntilBothAreUnpinned() {
+        ActiveResources activeResources = new ActiveResources();
+        Bitmap bitmap = bitmap(ENTRY_SIZE);
+        activeResources.pin(key(1), bitmap);
+        activeResources.pin(key(2), bitmap);
+
+        activeResources.unpin(key(1), bitmap);
+        assertTrue(ActiveResources.isInUse(bitmap));
+        activeResources.unpin(key(2), bitmap);
+        assertFalse(ActiveResources.isInUse(bitmap));
+    }
+
+    @Test
+    public void inUseAcrossInstances() {
+        ActiveResources first = new ActiveResources();
+        ActiveResources second = new ActiveResources();
+        Bitmap bitmap = bitmap(ENTRY_SIZE);
+        first.pin(key(1), bitmap);
+        second.pin(key(1), bitmap);
+
+        first.clear();
+        assertTrue(ActiveResources.isInUse(bitmap));
+        second.unpin(key(1), bitmap);
+        assertFalse(ActiveResources.isInUse(bitmap));
+    }
+
+    @Test
+    public void displacedEntryIsStillUnpinned() {
+        ActiveResources activeResources = new ActiveResources();
+        Bitmap old = bitmap(ENTRY_SIZE);
+        Bitmap fresh = bitmap(ENTRY_SIZE);
+        activeResources.pin(key(1), old);
+        activeResources.pin(key(1), fresh);
+
+        activeResources.unpin(key(1), old);
+        assertFalse(ActiveResources.isInUse(old));
+        assertTrue(ActiveResources.isInUse(fresh));
+    }
+
+    @Test
+    public void pinActiveUnderAnotherKey() {
+        ActiveResources activeResources = new ActiveResources();
+        Bitmap bitmap = bitmap(ENTRY_SIZE);
+        assertNull(activeResources.pinActive(key(1), key(2)));
+        activeResources.pin(key(1), bitmap);
+
+        assertSame(bitmap, activeResources.pinActive(key(1), key(2)));
+        activeResources.unpin(key(1), bitmap);
+        assertTrue(ActiveResources.isInUse(bitmap));
+        activeResources.unpin(key(2), bitmap);
+        assertFalse(ActiveResources.isInUse(bitmap));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+
+import com.squareup.picasso.interfaces.BitmapPool;
+import com.squareup.picasso.interfaces.Cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Loads 500 images from a local server which answers every request after a fixed delay, once with
+ * blocking downloads on a fetch pool of the old size and once with enqueued downloads.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public final class AsyncDownloadBenchmarkTest {
+    private static final int URL_COUNT = 500;
+    private static final long LATENCY_MS = 50;
+    private static final int FETCH_THREADS = 4;
+    private static final String BODY = "not really an image";
+
+    @Rule
+    public final MockWebServer server = new MockWebServer();
+
+    private OkHttpClient client;
+    private Stats stats;
+    private NetworkRequestHandler handler;
+
+    @Before
+    public void setUp() {
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                return new MockResponse().setBody(BODY).setHeadersDelay(LATENCY_MS, MILLISECONDS);
+            }
+        });
+        // All images come from one host, which OkHttp limits to 5 calls in flight by default.
+        okhttp3.Dispatcher dispatcher = new okhttp3.Dispatcher();
+        dispatcher.setMaxRequests(64);
+        dispatcher.setMaxRequestsPerHost(64);
+        client = new OkHttpClient.Builder().dispatcher(dispatcher).build();
+        stats = new Stats(Cache.NONE, BitmapPool.NONE);
+        handler = new NetworkRequestHandler(new OkHttp3Downloader(client), stats, null);
+    }
+
+    @After
+    public void tearDown() {
+        stats.shutdown();
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    @Test
+    public void enqueuedDownloadsDoNotWaitForFetchThreads() throws Exception {
+        long blockingMs = loadBlocking();
+        long asyncMs = loadAsync();
+
+        System.out.println("AsyncDownloadBenchmark: " + URL_COUNT + " URLs, " + LATENCY_MS
+                + "ms latency, blocking on " + FETCH_THREADS + " threads " + blockingMs
+                + "ms, enqueued " + asyncMs + "ms");
+        // Blocking is bound by URL_COUNT / FETCH_THREADS round trips, about 6.3s here.
+        assertTrue(asyncMs * 2 < blockingMs);
+    }
+
+    private long loadBlocking() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(FETCH_THREADS);
+        long start = System.nanoTime();
+        List<Future<?>> loads = new ArrayList<>(URL_COUNT);
+        for (int i = 0; i < URL_COUNT; i++) {
+            final Request request = request(i);
+            loads.add(executor.submit(() -> {
+                RequestHandler.Result result = handler.load(request, 0);
+                read(result);
+                return null;
+            }));
+        }
+        for (Future<?> load : loads) {
+            load.get();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+        executor.shutdown();
+        return elapsedMs;
+    }
+
+    private long loadAsync() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(URL_COUNT);
+        final AtomicReference<IOException> failure = new AtomicReference<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < URL_COUNT; i++) {
+            Request request = request(i);
+            handler.enqueue(handler.newCall(request, 0), request, new NetworkRequestHandler.LoadCallback() {
+                @Override
+                public void onResult(RequestHandler.Result result) {
+                    try {
+                        read(result);
+                    } catch (IOException e) {
+                        failure.set(e);
+                    }
+                    done.countDown();
+                }
+
+                @Override
+                public void onFailure(IOException e) {
+                    failure.set(e);
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(60, SECONDS));
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+        assertNull(failure.get());
+        return elapsedMs;
+    }
+
+    private Request request(int index) {
+        return new Request.Builder(Uri.parse(server.url("/image/" + index).toString())).build();
+    }
+
+    private static void read(RequestHandler.Result result) throws IOException {
+        try (Source source = result.getSource()) {
+            Okio.buffer(source).readByteString();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.graphics.Bitmap;
+
+import com.squareup.picasso.interfaces.Cache;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Access traces and helpers shared by the memory cache tests.
+ */
+final class CacheTraces {
+    static final int ENTRY_SIZE = 100;
+
+    private CacheTraces() {
+    }
+
+    /**
+     * Returns {@code length} key indices in {@code [0, keys)} drawn from a Zipf distribution with
+     * exponent {@code skew}, where key 0 is the most popular.
+     */
+    static int[] zipf(long seed, int length, int keys, double skew) {
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int i = 0; i < keys; i++) {
+            sum += 1 / Math.pow(i + 1, skew);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(seed);
+        int[] trace = new int[length];
+        for (int i = 0; i < length; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            trace[i] = index < 0 ? -index - 1 : index;
+        }
+        return trace;
+    }
+
+    /**
+     * Replay {@code trace} against {@code cache}, storing an entry on every miss, and return the
+     * hit ratio.
+     */
+    static double replay(Cache cache, int[] trace) {
+        int hits = 0;
+        for (int key : trace) {
+            CacheKey cacheKey = key(key);
+            if (cache.get(cacheKey) != null) {
+                hits++;
+            } else {
+                cache.set(cacheKey, bitmap(ENTRY_SIZE), null);
+            }
+        }
+        return (double) hits / trace.length;
+    }
+
+    static CacheKey key(int key) {
+        return CacheKey.fromString("key-" + key);
+    }
+
+    static Bitmap bitmap(int byteCount) {
+        Bitmap bitmap = mock(Bitmap.class);
+        when(bitmap.getAllocationByteCount()).thenReturn(byteCount);
+        when(bitmap.getByteCount()).thenReturn(byteCount);
+        return bitmap;
+    }
+}
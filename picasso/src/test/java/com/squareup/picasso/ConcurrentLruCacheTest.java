@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import static com.squareup.picasso.CacheTraces.ENTRY_SIZE;
+import static com.squareup.picasso.CacheTraces.bitmap;
+import static com.squareup.picasso.CacheTraces.key;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public final class ConcurrentLruCacheTest {
+    private static final int CAPACITY = 100;
+    private static final int KEYS = 1000;
+
+    @Test
+    public void hitRatioMatchesExactLru() {
+        int[] trace = CacheTraces.zipf(7, 50000, KEYS, 0.9);
+        double exact = exactLru(trace, CAPACITY);
+        double segmented = CacheTraces.replay(new ConcurrentLruCache(CAPACITY * ENTRY_SIZE), trace);
+
+        // Evicting per segment only approximates global recency: 0.469 against 0.472 here.
+        assertEquals(exact, segmented, 0.02);
+    }
+
+    @Test
+    public void concurrentReadersAndWriters() throws Exception {
+        final ConcurrentLruCache cache = new ConcurrentLruCache(CAPACITY * ENTRY_SIZE);
+        final Bitmap[] bitmaps = new Bitmap[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            bitmaps[i] = bitmap(ENTRY_SIZE);
+        }
+
+        int threads = 8;
+        int length = 200000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            final int[] trace = CacheTraces.zipf(i, length, KEYS, 0.9);
+            results.add(executor.submit(() -> {
+                start.await();
+                int hits = 0;
+                for (int key : trace) {
+                    Bitmap bitmap = cache.get(key(key));
+                    if (bitmap != null) {
+                        assertSame(bitmaps[key], bitmap);
+                        hits++;
+                    } else {
+                        cache.set(key(key), bitmaps[key], null);
+                    }
+                }
+                return hits;
+            }));
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        int hits = 0;
+        for (Future<Integer> result : results) {
+            hits += result.get();
+        }
+        long elapsedMs = (System.nanoTime() - startTime) / 1000000;
+        executor.shutdown();
+
+        System.out.println("ConcurrentLruCache: " + threads * length + " lookups on " + threads + " threads in " + elapsedMs + "ms, hit ratio " + (double) hits / (threads * length));
+        assertEquals(threads * length, cache.hitCount() + cache.missCount());
+        assertEquals(hits, cache.hitCount());
+        assertTrue(cache.size() <= cache.maxSize());
+    }
+
+    private static double exactLru(int[] trace, int capacity) {
+        LinkedHashMap<Integer, Boolean> entries = new LinkedHashMap<>(16, 0.75f, true);
+        int hits = 0;
+        for (int key : trace) {
+            if (entries.get(key) != null) {
+                hits++;
+                continue;
+            }
+            entries.put(key, true);
+            if (entries.size() > capacity) {
+                Iterator<Integer> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return (double) hits / trace.length;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2026 Square, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.picasso;
+
+import static com.squareup.picasso.CacheTraces.ENTRY_SIZE;
+import static com.squareup.picasso.CacheTraces.bitmap;
+import static com.squareup.picasso.CacheTraces.key;
+import static com.squareup.picasso.CacheTraces.replay;
+import static com.squareup.picasso.CacheTraces.zipf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+
+import com.squareup.picasso.interfaces.BitmapPool;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Hit ratios are measured against {@link LruCache}, the default memory cache, which needs the
+ * framework's {@link android.util.LruCache} and therefore Robolectric.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public final class TinyLfuCacheTest {
+    private static final int CAPACITY = 100;
+
+    @Test
+    public void candidateRejectedAtAdmissionIsNotPooled() {
+        RecordingPool pool = new RecordingPool();
+        TinyLfuCache cache = new TinyLfuCache(CAPACITY * ENTRY_SIZE, pool);
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.set(key(i), bitmap(ENTRY_SIZE), null);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < CAPACITY; i++) {
+                cache.get(key(i));
+            }
+        }
+
+        // Larger than the window, so it is offered to the main space straight away and loses
+        // against the popular residents.
+        Bitmap fresh = bitmap(2 * ENTRY_SIZE);
+        cache.set(CacheKey.fromString("fresh"), fresh, null);
+
+        assertTrue(cache.rejectionCount() > 0);
+        assertNull(cache.get(CacheKey.fromString("fresh")));
+        assertTrue(pool.pooled.isEmpty());
+    }
+
+    @Test
+    public void scanResistantHitRatio() {
+        int[] trace = scanTrace();
+        double tinyLfu = replay(new TinyLfuCache(CAPACITY * ENTRY_SIZE), trace);
+        double lru = replay(new LruCache(CAPACITY * ENTRY_SIZE), trace);
+
+        // 0.69 against 0.49 for this trace.
+        assertTrue("TinyLFU " + tinyLfu + " vs LRU " + lru, tinyLfu > lru + 0.1);
+    }
+
+    @Test
+    public void skewedHitRatio() {
+        int[] trace = zipf(7, 50000, 10 * CAPACITY, 0.9);
+        double tinyLfu = replay(new TinyLfuCache(CAPACITY * ENTRY_SIZE), trace);
+        double lru = replay(new LruCache(CAPACITY * ENTRY_SIZE), trace);
+
+        // 0.58 against 0.47 for this trace.
+        assertTrue("TinyLFU " + tinyLfu + " vs LRU " + lru, tinyLfu > lru + 0.05);
+    }
+
+    @Test
+    public void replayIsDeterministic() {
+        int[] trace = scanTrace();
+        assertEquals(replay(new TinyLfuCache(CAPACITY * ENTRY_SIZE), trace),
+                replay(new TinyLfuCache(CAPACITY * ENTRY_SIZE), trace), 0);
+    }
+
+    /**
+     * Returns a trace where 70% of requests go to a hot set smaller than the cache and the rest
+     * are one-off scans.
+     */
+    private static int[] scanTrace() {
+        Random random = new Random(42);
+        int[] trace = new int[20000];
+        int scan = 80;
+        for (int i = 0; i < trace.length; i++) {
+            trace[i] = random.nextInt(10) < 7 ? random.nextInt(80) : scan++;
+        }
+        return trace;
+    }
+
+    private static final class RecordingPool implements BitmapPool {
+        final List<Bitmap> pooled = new ArrayList<>();
+
+        @Override
+        public Bitmap get(int width, int height, Bitmap.Config config) {
+            return null;
+        }
+
+        @Override
+        public boolean put(Bitmap bitmap) {
+            pooled.add(bitmap);
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public int maxSize() {
+            return 0;
+        }
+
+        @Override
+        public void clear() {
+        }
+    }
+}